@@ -0,0 +1,96 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs the benchmarks once per thread count in {@code bench.threads} (default {@code 1,4}) and
+ * writes all results to one JSON file, {@code bench.result} (default {@code jmh-result.json}).
+ * Other arguments are regular JMH options, e.g. a benchmark regex or {@code -wi 1 -i 3}.
+ * {@code redis.*} properties are passed on to the forked benchmark JVMs.
+ * For {@link CartServiceBenchmark} it then prints the p99 of every result next to the bytes the
+ * operation sends to and receives from Redis in that storage mode and cart size.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams()
+                || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        List<String> redisProperties = new ArrayList<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("redis.")) {
+                redisProperties.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+
+        List<RunResult> results = new ArrayList<>();
+        for (String threads : System.getProperty("bench.threads", "1,4").split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(Integer.parseInt(threads.trim()))
+                    .jvmArgsAppend(redisProperties.toArray(new String[0]));
+            results.addAll(new Runner(options.build()).run());
+        }
+
+        String resultFile = System.getProperty("bench.result", "jmh-result.json");
+        ResultFormatFactory.getInstance(ResultFormatType.JSON, resultFile).writeOut(results);
+        System.out.println("Wrote " + results.size() + " results to " + resultFile);
+        printCartServiceWireBytes(results);
+    }
+
+    private static void printCartServiceWireBytes(List<RunResult> results) throws Exception {
+        String prefix = CartServiceBenchmark.class.getName() + ".";
+        List<RunResult> cartServiceResults = new ArrayList<>();
+        Set<String> storageModes = new LinkedHashSet<>();
+        Set<Integer> cartSizes = new TreeSet<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            if (params.getBenchmark().startsWith(prefix)) {
+                cartServiceResults.add(result);
+                storageModes.add(params.getParam("storageMode"));
+                cartSizes.add(Integer.valueOf(params.getParam("cartSize")));
+            }
+        }
+        if (cartServiceResults.isEmpty()) {
+            return;
+        }
+
+        Map<String, CartWireBytes.Traffic> traffic = CartWireBytes.measure(storageModes, cartSizes);
+        System.out.printf("%n%-16s %-6s %9s %7s %16s %12s %16s%n",
+                "Operation", "Mode", "Cart size", "Threads", "p99", "Sent B/op", "Received B/op");
+        for (RunResult result : cartServiceResults) {
+            BenchmarkParams params = result.getParams();
+            String operation = params.getBenchmark().substring(prefix.length());
+            int cartSize = Integer.parseInt(params.getParam("cartSize"));
+            CartWireBytes.Traffic operationTraffic =
+                    traffic.get(CartWireBytes.key(operation, params.getParam("storageMode"), cartSize));
+            String p99 = String.format("%.1f %s",
+                    result.getPrimaryResult().getStatistics().getPercentile(99.0), result.getPrimaryResult().getScoreUnit());
+            System.out.printf("%-16s %-6s %9d %7d %16s %12.0f %16.0f%n",
+                    operation, params.getParam("storageMode"), cartSize, params.getThreads(), p99,
+                    operationTraffic.sentBytes, operationTraffic.receivedBytes);
+        }
+    }
+}
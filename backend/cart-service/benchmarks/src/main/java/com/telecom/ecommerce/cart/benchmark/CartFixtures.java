@@ -0,0 +1,151 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telecom.ecommerce.cart.cache.CartNearCache;
+import com.telecom.ecommerce.cart.cache.DiscountCache;
+import com.telecom.ecommerce.cart.cache.ProductCache;
+import com.telecom.ecommerce.cart.client.DiscountServiceClient;
+import com.telecom.ecommerce.cart.client.ProductServiceClient;
+import com.telecom.ecommerce.cart.config.RedisConfig;
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+import com.telecom.ecommerce.cart.repository.CartRepository;
+import com.telecom.ecommerce.cart.repository.RedisHashCartRepository;
+import com.telecom.ecommerce.cart.repository.RedisValueCartRepository;
+import com.telecom.ecommerce.cart.service.CartMapper;
+import com.telecom.ecommerce.cart.service.CartServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Builds the cart-service objects the benchmarks run against, wired by hand the way Spring wires
+ * them, with in-process stand-ins for the product and discount services. Every third product has
+ * a 10% discount so totals go through the discount path too.
+ */
+final class CartFixtures {
+
+    private static final int CART_EXPIRATION_HOURS = 48;
+    private static final int CART_EXPIRATION_REFRESH_BELOW_HOURS = 24;
+    private static final int COMPRESSION_THRESHOLD_BYTES = 1024;
+
+    private CartFixtures() {
+    }
+
+    static CartServiceImpl cartService(RedisConnectionFactory connectionFactory, String storageMode) {
+        ObjectMapper objectMapper = new RedisConfig().objectMapper();
+        RedisTemplate<String, Cart> cartRedisTemplate =
+                new RedisConfig().cartRedisTemplate(connectionFactory, objectMapper, "json", COMPRESSION_THRESHOLD_BYTES);
+        cartRedisTemplate.afterPropertiesSet();
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        DiscountCache discountCache = discountCache();
+        CartTotalCalculator cartTotalCalculator = new CartTotalCalculator(discountCache);
+
+        CartRepository cartRepository = "hash".equals(storageMode)
+                ? new RedisHashCartRepository(stringRedisTemplate, cartRedisTemplate, objectMapper, cartTotalCalculator,
+                        CART_EXPIRATION_HOURS, CART_EXPIRATION_REFRESH_BELOW_HOURS, false, "standalone", null)
+                : new RedisValueCartRepository(cartRedisTemplate, cartTotalCalculator,
+                        CART_EXPIRATION_HOURS, CART_EXPIRATION_REFRESH_BELOW_HOURS, "standalone", null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Disabled, so the benchmarks measure Redis round trips
+        CartNearCache cartNearCache = new CartNearCache(stringRedisTemplate, null, meterRegistry, false, 0, 0, "");
+        ProductCache productCache = new ProductCache(new StubProductServiceClient(), meterRegistry, 10_000, 300, 60);
+        return new CartServiceImpl(
+                cartRepository, cartNearCache, productCache, discountCache, cartTotalCalculator, new CartMapper(false), false);
+    }
+
+    static CartTotalCalculator cartTotalCalculator() {
+        return new CartTotalCalculator(discountCache());
+    }
+
+    private static DiscountCache discountCache() {
+        DiscountCache discountCache = new DiscountCache(new StubDiscountServiceClient());
+        discountCache.refresh();
+        return discountCache;
+    }
+
+    @SuppressWarnings("unchecked")
+    static RedisSerializer<Cart> cartSerializer(String format) {
+        RedisConfig redisConfig = new RedisConfig();
+        return (RedisSerializer<Cart>) redisConfig
+                .cartRedisTemplate(null, redisConfig.objectMapper(), format, COMPRESSION_THRESHOLD_BYTES)
+                .getValueSerializer();
+    }
+
+    // A stored cart with products 1..items, quantity 1 each
+    static Cart cart(int items) {
+        CartMapper cartMapper = new CartMapper(false);
+        LocalDateTime now = LocalDateTime.now();
+        // Manual builder implementation
+        Cart cart = new Cart();
+        cart.setId("benchmark-cart");
+        cart.setTotal(BigDecimal.ZERO);
+        cart.setCreatedAt(now);
+        cart.setUpdatedAt(now);
+        cart.setExpiresAt(now.plusHours(CART_EXPIRATION_HOURS));
+        cart.setVersion(1L);
+        for (long productId = 1; productId <= items; productId++) {
+            cart.addItem(cartMapper.mapToCartItem(product(productId), 1));
+        }
+        return cart;
+    }
+
+    static ProductDto product(Long productId) {
+        // Manual builder implementation
+        ProductDto product = new ProductDto();
+        product.setId(productId);
+        product.setName("Benchmark plan " + productId);
+        product.setDescription("Unlimited calls and texts with " + productId + " GB of data");
+        product.setPrice(BigDecimal.valueOf(1999 + productId * 100, 2));
+        product.setType("tariff");
+        product.setImageUrl("https://via.placeholder.com/300x200?text=Plan+" + productId);
+        product.setDataAllowance(productId + " GB");
+        product.setBrand("Telecom");
+        return product;
+    }
+
+    private static final class StubProductServiceClient implements ProductServiceClient {
+
+        @Override
+        public ProductDto getProductById(Long id) {
+            return product(id);
+        }
+
+        @Override
+        public List<ProductDto> getProductsByIds(Collection<Long> ids) {
+            List<ProductDto> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                products.add(product(id));
+            }
+            return products;
+        }
+    }
+
+    private static final class StubDiscountServiceClient implements DiscountServiceClient {
+
+        @Override
+        public List<DiscountDto> getActiveDiscounts() {
+            List<DiscountDto> discounts = new ArrayList<>();
+            for (long productId = 3; productId <= 1000; productId += 3) {
+                DiscountDto discount = new DiscountDto();
+                discount.setId(productId);
+                discount.setProductId(productId);
+                discount.setPercentage(10);
+                discount.setExpiryTime("2099-01-01T00:00:00");
+                discount.setActive(true);
+                discounts.add(discount);
+            }
+            return discounts;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Line lookups and updates on the product id index inside Cart
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartItemIndexBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int items;
+
+    private Cart cart;
+    private long nextProductId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cart = CartFixtures.cart(items);
+    }
+
+    @Benchmark
+    public Optional<CartItem> findItem() {
+        return cart.findItem(nextProductId());
+    }
+
+    // Merges into the existing line
+    @Benchmark
+    public Cart addExistingItem() {
+        CartItem item = new CartItem();
+        item.setProductId(nextProductId());
+        item.setQuantity(1);
+        cart.addItem(item);
+        return cart;
+    }
+
+    // Removes a line and adds it back, so the cart keeps its size
+    @Benchmark
+    public Cart removeAndAddItem() {
+        long productId = nextProductId();
+        CartItem item = cart.findItem(productId).get();
+        cart.removeItem(productId);
+        cart.addItem(item);
+        return cart;
+    }
+
+    @Benchmark
+    public List<CartItem> getItems() {
+        return cart.getItems();
+    }
+
+    private long nextProductId() {
+        nextProductId = nextProductId % items + 1;
+        return nextProductId;
+    }
+}
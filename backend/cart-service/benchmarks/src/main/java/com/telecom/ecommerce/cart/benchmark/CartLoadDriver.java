@@ -0,0 +1,102 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP load against a running cart-service: seeds carts through the API, then keeps a fixed
+ * number of requests in flight for the given time, mixing GET /api/cart with adds, and prints
+ * the outcome as one JSON line.
+ * <pre>
+ * java -cp target/cart-benchmarks.jar com.telecom.ecommerce.cart.benchmark.CartLoadDriver \
+ *     [baseUrl=http://localhost:8082] [concurrency=50] [seconds=15] [carts=1000] [writePercent=10]
+ * </pre>
+ */
+public final class CartLoadDriver {
+
+    private static final String CART_COOKIE_PREFIX = "cart_id=";
+
+    private CartLoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8082";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        int carts = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        int writePercent = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        URI cartUri = URI.create(baseUrl + "/api/cart");
+        URI addUri = URI.create(baseUrl + "/api/cart/add");
+
+        // Cart ids are signed by the service, so each cart starts with a GET that issues its cookie
+        String[] cookies = new String[carts];
+        for (int i = 0; i < carts; i++) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(cartUri).GET().build(), HttpResponse.BodyHandlers.discarding());
+            cookies[i] = response.headers().firstValue("Set-Cookie")
+                    .map(header -> header.substring(0, header.indexOf(';')))
+                    .orElseThrow(() -> new IllegalStateException("No cart cookie issued by " + cartUri));
+            client.send(addRequest(addUri, cookies[i], 1 + i % 4), HttpResponse.BodyHandlers.discarding());
+        }
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(concurrency);
+        Random random = new Random(1);
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            String cookie = cookies[random.nextInt(carts)];
+            HttpRequest request = random.nextInt(100) < writePercent
+                    ? addRequest(addUri, cookie, 1 + random.nextInt(4))
+                    : HttpRequest.newBuilder(cartUri).header("Cookie", cookie).timeout(Duration.ofSeconds(30)).GET().build();
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error == null && response.statusCode() < 300) {
+                    succeeded.incrementAndGet();
+                    latencies.add(System.nanoTime() - start);
+                } else {
+                    failed.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("{\"concurrency\":%d,\"seconds\":%d,\"carts\":%d,\"writePercent\":%d,\"succeeded\":%d,\"failed\":%d,"
+                        + "\"requestsPerSecond\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f}%n",
+                concurrency, seconds, carts, writePercent, succeeded.get(), failed.get(),
+                succeeded.get() / (double) seconds, percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+        System.exit(0);
+    }
+
+    private static HttpRequest addRequest(URI addUri, String cookie, int productId) {
+        return HttpRequest.newBuilder(addUri)
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":" + productId + ",\"quantity\":1}"))
+                .build();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, sortedNanos.length * percentile)] / 1e6;
+    }
+}
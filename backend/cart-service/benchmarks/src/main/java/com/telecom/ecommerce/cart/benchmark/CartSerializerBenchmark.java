@@ -0,0 +1,68 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Value-mode cart encodings: the JSON serializer against the compact binary one, which deflates
+ * bodies over 1 KiB. The stored size is reported next to the timings as {@code storedBytes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartSerializerBenchmark {
+
+    @Param({"json", "compact"})
+    public String format;
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private RedisSerializer<Cart> serializer;
+    private Cart cart;
+    private byte[] stored;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class StoredSize {
+
+        public long storedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = CartFixtures.cartSerializer(format);
+        cart = CartFixtures.cart(items);
+        stored = serializer.serialize(cart);
+    }
+
+    @Benchmark
+    public byte[] serialize(StoredSize size) {
+        byte[] bytes = serializer.serialize(cart);
+        size.storedBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Cart deserialize() {
+        return serializer.deserialize(stored);
+    }
+}
@@ -0,0 +1,135 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import com.telecom.ecommerce.cart.service.CartServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartServiceImpl against a local Redis, per storage mode and cart size. Each benchmark thread
+ * works on its own cart, so running with more threads measures concurrent carts, not contention
+ * on one. The near-cache is off and products come from the warmed product cache.
+ * {@link BenchmarkRunner} reports the Redis bytes of each operation ({@link CartWireBytes}) next to its p99.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        @Param({"value", "hash"})
+        public String storageMode;
+
+        private LocalRedis redis;
+        private LettuceConnectionFactory connectionFactory;
+        CartServiceImpl cartService;
+        // Deleted here rather than in ThreadCart, since JMH may tear this state down first
+        final Set<String> cartIds = ConcurrentHashMap.newKeySet();
+
+        @Setup(Level.Trial)
+        public void start() throws Exception {
+            redis = LocalRedis.start();
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getPort()));
+            connectionFactory.afterPropertiesSet();
+            cartService = CartFixtures.cartService(connectionFactory, storageMode);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() throws Exception {
+            cartIds.forEach(cartService::deleteCart);
+            connectionFactory.destroy();
+            redis.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadCart {
+
+        @Param({"1", "10", "100"})
+        public int cartSize;
+
+        String cartId;
+        private long nextProductId;
+        private int nextQuantity;
+
+        @Setup(Level.Trial)
+        public void fill(Service service) {
+            cartId = "benchmark-" + UUID.randomUUID();
+            service.cartIds.add(cartId);
+            for (long productId = 1; productId <= cartSize; productId++) {
+                service.cartService.addToCart(cartId, productId, 1, null);
+            }
+        }
+
+        // Cycles through the products already in the cart, so the cart keeps its size
+        long nextProductId() {
+            nextProductId = nextProductId % cartSize + 1;
+            return nextProductId;
+        }
+
+        int nextQuantity() {
+            nextQuantity = nextQuantity % 5 + 1;
+            return nextQuantity;
+        }
+    }
+
+    // Puts back the line the previous removeFromCart took out, outside the measured call, so every
+    // removal sees the full cart
+    @State(Scope.Thread)
+    public static class Removal {
+
+        long productId;
+        private boolean removed;
+
+        @Setup(Level.Invocation)
+        public void restore(Service service, ThreadCart cart) {
+            if (removed) {
+                service.cartService.addToCart(cart.cartId, productId, 1, null);
+            }
+            productId = cart.nextProductId();
+            removed = true;
+        }
+    }
+
+    @Benchmark
+    public CartResponse getCart(Service service, ThreadCart cart) {
+        return service.cartService.getCartResponse(cart.cartId);
+    }
+
+    @Benchmark
+    public CartResponse addToCart(Service service, ThreadCart cart) {
+        return service.cartService.addToCart(cart.cartId, cart.nextProductId(), 1, null);
+    }
+
+    @Benchmark
+    public CartResponse updateCartItem(Service service, ThreadCart cart) {
+        return service.cartService.updateCartItem(cart.cartId, cart.nextProductId(), cart.nextQuantity(), null);
+    }
+
+    @Benchmark
+    public CartResponse removeFromCart(Service service, ThreadCart cart, Removal removal) {
+        return service.cartService.removeFromCart(cart.cartId, removal.productId, null);
+    }
+}
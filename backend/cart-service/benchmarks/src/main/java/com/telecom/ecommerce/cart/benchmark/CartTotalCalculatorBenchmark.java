@@ -0,0 +1,47 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Cart total in integer cents, with live discounts on every third product
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartTotalCalculatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private CartTotalCalculator cartTotalCalculator;
+    private Cart cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cartTotalCalculator = CartFixtures.cartTotalCalculator();
+        cart = CartFixtures.cart(items);
+    }
+
+    @Benchmark
+    public BigDecimal updateTotal() {
+        cartTotalCalculator.updateTotal(cart);
+        return cart.getTotal();
+    }
+}
@@ -0,0 +1,100 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import com.telecom.ecommerce.cart.service.CartServiceImpl;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bytes each {@link CartServiceBenchmark} operation exchanges with Redis, per storage mode and cart
+ * size, counted by a {@link CountingRedisProxy} in front of a local Redis. The counts do not depend
+ * on timing, so they are taken outside JMH, as the average over a few calls on a cart of the given size.
+ */
+final class CartWireBytes {
+
+    private static final int CALLS = 20;
+
+    private CartWireBytes() {
+    }
+
+    static final class Traffic {
+        final double sentBytes;
+        final double receivedBytes;
+
+        private Traffic(double sentBytes, double receivedBytes) {
+            this.sentBytes = sentBytes;
+            this.receivedBytes = receivedBytes;
+        }
+    }
+
+    // Keyed by key(operation, storageMode, cartSize)
+    static Map<String, Traffic> measure(Collection<String> storageModes, Collection<Integer> cartSizes) throws Exception {
+        Map<String, Traffic> traffic = new HashMap<>();
+        try (LocalRedis redis = LocalRedis.start();
+             CountingRedisProxy proxy = CountingRedisProxy.start(redis.getHost(), redis.getPort())) {
+            for (String storageMode : storageModes) {
+                LettuceConnectionFactory connectionFactory =
+                        new LettuceConnectionFactory(new RedisStandaloneConfiguration(proxy.getHost(), proxy.getPort()));
+                connectionFactory.afterPropertiesSet();
+                try {
+                    CartServiceImpl cartService = CartFixtures.cartService(connectionFactory, storageMode);
+                    for (int cartSize : cartSizes) {
+                        measure(proxy, cartService, storageMode, cartSize, traffic);
+                    }
+                } finally {
+                    connectionFactory.destroy();
+                }
+            }
+        }
+        return traffic;
+    }
+
+    static String key(String operation, String storageMode, int cartSize) {
+        return operation + "/" + storageMode + "/" + cartSize;
+    }
+
+    // The same calls as the benchmark methods, on a cart that keeps its size
+    private static void measure(CountingRedisProxy proxy, CartServiceImpl cartService, String storageMode, int cartSize,
+                                Map<String, Traffic> traffic) {
+        String cartId = "wire-bytes-" + storageMode + "-" + cartSize;
+        for (long productId = 1; productId <= cartSize; productId++) {
+            cartService.addToCart(cartId, productId, 1, null);
+        }
+
+        for (String operation : new String[]{"getCart", "addToCart", "updateCartItem", "removeFromCart"}) {
+            long sent = 0;
+            long received = 0;
+            for (int call = 0; call < CALLS; call++) {
+                long productId = call % cartSize + 1;
+                long sentBefore = proxy.getSentBytes();
+                long receivedBefore = proxy.getReceivedBytes();
+                switch (operation) {
+                    case "getCart":
+                        cartService.getCartResponse(cartId);
+                        break;
+                    case "addToCart":
+                        cartService.addToCart(cartId, productId, 1, null);
+                        break;
+                    case "updateCartItem":
+                        cartService.updateCartItem(cartId, productId, call % 5 + 1, null);
+                        break;
+                    default:
+                        cartService.removeFromCart(cartId, productId, null);
+                        break;
+                }
+                sent += proxy.getSentBytes() - sentBefore;
+                received += proxy.getReceivedBytes() - receivedBefore;
+                if (operation.equals("removeFromCart")) {
+                    // Not counted: puts the line back so the next call sees the full cart again
+                    cartService.addToCart(cartId, productId, 1, null);
+                }
+            }
+            traffic.put(key(operation, storageMode, cartSize),
+                    new Traffic((double) sent / CALLS, (double) received / CALLS));
+        }
+        cartService.deleteCart(cartId);
+    }
+}
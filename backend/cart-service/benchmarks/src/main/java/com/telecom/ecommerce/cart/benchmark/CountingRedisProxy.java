@@ -0,0 +1,107 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays connections on a local port to a Redis server and counts the bytes going each way, so
+ * they are exactly what the client and Redis exchange on the wire. Adds a hop to every command,
+ * so it is only used to count bytes, never while timing.
+ */
+final class CountingRedisProxy implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String redisHost;
+    private final int redisPort;
+    private final ServerSocket serverSocket;
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    private CountingRedisProxy(String redisHost, int redisPort) throws IOException {
+        this.redisHost = redisHost;
+        this.redisPort = redisPort;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    }
+
+    static CountingRedisProxy start(String redisHost, int redisPort) throws IOException {
+        CountingRedisProxy proxy = new CountingRedisProxy(redisHost, redisPort);
+        daemon(proxy::acceptConnections, "redis-proxy-accept");
+        return proxy;
+    }
+
+    String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    // Bytes sent to Redis so far: the encoded commands
+    long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    // Bytes received from Redis so far: the encoded replies
+    long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                Socket redis = new Socket(redisHost, redisPort);
+                client.setTcpNoDelay(true);
+                redis.setTcpNoDelay(true);
+                daemon(() -> relay(client, redis, sentBytes), "redis-proxy-send");
+                daemon(() -> relay(redis, client, receivedBytes), "redis-proxy-receive");
+            } catch (IOException e) {
+                // Closed, or a connection that could not be set up; the client sees it fail
+            }
+        }
+    }
+
+    // Counts before forwarding, so the bytes are counted by the time the other side can react to them
+    private static void relay(Socket from, Socket to, AtomicLong counter) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                counter.addAndGet(read);
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The connection was closed on one side
+        } finally {
+            closeQuietly(from);
+            closeQuietly(to);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+
+    private static void daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,87 @@
+package com.telecom.ecommerce.cart.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A throwaway {@code redis-server} process on a free port, without persistence. Set
+ * {@code redis.server} to the binary if it is not on the PATH, or {@code redis.port} to
+ * use a Redis that is already running instead.
+ */
+final class LocalRedis implements AutoCloseable {
+
+    private static final String HOST = "localhost";
+
+    private final int port;
+    // Null when an already running Redis is used
+    private final Process process;
+
+    private LocalRedis(int port, Process process) {
+        this.port = port;
+        this.process = process;
+    }
+
+    static LocalRedis start() throws IOException, InterruptedException {
+        String externalPort = System.getProperty("redis.port");
+        if (externalPort != null) {
+            return new LocalRedis(Integer.parseInt(externalPort), null);
+        }
+
+        int port = freePort();
+        Process process = new ProcessBuilder(
+                System.getProperty("redis.server", "redis-server"),
+                "--port", String.valueOf(port),
+                "--save", "",
+                "--appendonly", "no")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        // Also stops the server when the benchmark JVM is terminated before its tear-down runs
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+        LocalRedis redis = new LocalRedis(port, process);
+        redis.awaitStarted();
+        return redis;
+    }
+
+    String getHost() {
+        return HOST;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private void awaitStarted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("redis-server exited with code " + process.exitValue());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(HOST, port), 100);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        process.destroy();
+        throw new IllegalStateException("redis-server did not start on port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.telecom.ecommerce.cart.model.Cart;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Optional in-process cache of recently read carts, enabled with {@code cart.near-cache.enabled}.
+ * Every cart write publishes the cart id on a Redis pub/sub channel so other replicas drop their
+ * copy. Messages are not delivered while a replica is disconnected, so entries also expire after
+ * a short, fixed time, which bounds how stale a cart can get.
+ * A read that started before an invalidation of the same cart never installs its result, and an
+ * older version never replaces a newer one, so a slow read cannot bring back a cart that was
+ * just invalidated.
+ * Hit, miss and eviction counts are published as the {@code cache.*} metrics of {@code cart.near-cache}.
+ */
+@Component
+public class CartNearCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CartNearCache.class);
+    private static final String CACHE_NAME = "cart.near-cache";
+    private static final int STAMP_STRIPES = 64;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String invalidationChannel;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Null when the near-cache is disabled
+    private final Cache<String, Cart> cache;
+    // Invalidation counters, one per stripe of cart ids, so a put can tell whether its cart was invalidated meanwhile
+    private final AtomicLongArray invalidationStamps = new AtomicLongArray(STAMP_STRIPES);
+
+    @Autowired
+    public CartNearCache(
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${cart.near-cache.enabled:false}") boolean enabled,
+            @Value("${cart.near-cache.maximum-size:10000}") long maximumSize,
+            @Value("${cart.near-cache.expire-after-write-seconds:30}") long expireAfterWriteSeconds,
+            @Value("${cart.near-cache.invalidation-channel:cart:invalidate}") String invalidationChannel
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        listenerContainer.addMessageListener(this, new ChannelTopic(invalidationChannel));
+        log.info("Cart near-cache enabled (maximum size {}, expiry {}s)", maximumSize, expireAfterWriteSeconds);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    // A copy, since callers reprice the cart they get and the cached one is shared between requests
+    public Cart get(String cartId) {
+        Cart cart = cache != null ? cache.getIfPresent(cartId) : null;
+        return cart != null ? cart.copy() : null;
+    }
+
+    // Taken before reading the cart from Redis and passed to put with the result
+    public long invalidationStamp(String cartId) {
+        return invalidationStamps.get(stripe(cartId));
+    }
+
+    // Skipped when the cart was invalidated since the stamp was taken, or a newer version is cached already
+    public void put(Cart cart, long invalidationStamp) {
+        if (cache == null) {
+            return;
+        }
+        int stripe = stripe(cart.getId());
+        cache.asMap().compute(cart.getId(), (cartId, cached) -> {
+            if (invalidationStamps.get(stripe) != invalidationStamp) {
+                return cached;
+            }
+            // The caller keeps its instance, so the cache holds its own
+            return cached != null && version(cached) >= version(cart) ? cached : cart.copy();
+        });
+    }
+
+    // Drops the local copy and tells the other replicas to drop theirs
+    public void invalidate(String cartId) {
+        if (cache == null) {
+            return;
+        }
+        invalidateLocally(cartId);
+        stringRedisTemplate.convertAndSend(invalidationChannel, instanceId + ":" + cartId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed cart invalidation message: {}", body);
+            return;
+        }
+        // Our own writes have already been invalidated locally
+        if (!body.substring(0, separator).equals(instanceId)) {
+            invalidateLocally(body.substring(separator + 1));
+        }
+    }
+
+    // The stamp moves first, so a put racing with this either sees it or is removed right after
+    private void invalidateLocally(String cartId) {
+        invalidationStamps.incrementAndGet(stripe(cartId));
+        cache.invalidate(cartId);
+    }
+
+    private static int stripe(String cartId) {
+        return Math.floorMod(cartId.hashCode(), STAMP_STRIPES);
+    }
+
+    private static long version(Cart cart) {
+        return cart.getVersion() != null ? cart.getVersion() : 0L;
+    }
+}
@@ -0,0 +1,177 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.telecom.ecommerce.cart.client.DiscountServiceClient;
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active discounts by product id. The whole set is pulled from discount-service in one call on a
+ * fixed schedule, so pricing never waits on a remote call; each entry expires by itself at the
+ * discount's expiry time, even between refreshes. When a refresh fails the current entries are
+ * kept until they expire.
+ * The generation changes whenever the discounts a cart is priced with may have changed: after a
+ * refresh that changed them, and once a cached discount has expired. It starts at a random value,
+ * so generations taken on different instances do not match by accident.
+ */
+@Component
+public class DiscountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscountCache.class);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    // Entries stay in the cache a little past their expiry; get compares against the clock itself, so
+    // a discount stops applying at exactly the moment the generation moves on
+    private static final long EXPIRY_GRACE_MILLIS = 1000;
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final DiscountServiceClient discountServiceClient;
+    private final Cache<Long, ActiveDiscount> cache = Caffeine.newBuilder()
+            .expireAfter(new Expiry<Long, ActiveDiscount>() {
+                @Override
+                public long expireAfterCreate(Long productId, ActiveDiscount discount, long currentTime) {
+                    return nanosUntilRemoval(discount);
+                }
+
+                @Override
+                public long expireAfterUpdate(Long productId, ActiveDiscount discount, long currentTime, long currentDuration) {
+                    return nanosUntilRemoval(discount);
+                }
+
+                @Override
+                public long expireAfterRead(Long productId, ActiveDiscount discount, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    private final AtomicLong generation = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    // Expiry of the discount that ends next, in epoch millis
+    private volatile long nextExpiryMillis = NO_EXPIRY;
+
+    @Autowired
+    public DiscountCache(DiscountServiceClient discountServiceClient) {
+        this.discountServiceClient = discountServiceClient;
+    }
+
+    public DiscountDto get(Long productId) {
+        ActiveDiscount discount = cache.getIfPresent(productId);
+        return discount != null && discount.expiryMillis > System.currentTimeMillis() ? discount.discount : null;
+    }
+
+    public long generation() {
+        long expiryMillis = nextExpiryMillis;
+        if (expiryMillis <= System.currentTimeMillis()) {
+            discountExpired(expiryMillis);
+        }
+        return generation.get();
+    }
+
+    @Scheduled(fixedDelayString = "${discount.cache.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        List<DiscountDto> discounts;
+        try {
+            discounts = discountServiceClient.getActiveDiscounts();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh discounts, keeping {} cached: {}", cache.estimatedSize(), e.getMessage());
+            return;
+        }
+
+        // Keep the best discount when a product has more than one
+        long now = System.currentTimeMillis();
+        Map<Long, ActiveDiscount> byProductId = new HashMap<>();
+        for (DiscountDto discount : discounts) {
+            if (discount.isActive() && discount.getPercentage() != null) {
+                ActiveDiscount active = ActiveDiscount.of(discount);
+                if (active != null && active.expiryMillis > now) {
+                    byProductId.merge(discount.getProductId(), active,
+                            (current, other) -> other.discount.getPercentage() > current.discount.getPercentage() ? other : current);
+                }
+            }
+        }
+        // A discount that expired since the last generation() call has not moved the generation yet
+        boolean changed = nextExpiryMillis <= now || !liveDiscounts(now).equals(discounts(byProductId));
+        cache.putAll(byProductId);
+        cache.asMap().keySet().retainAll(byProductId.keySet());
+        // Only after the new discounts are in place, so a generation is never newer than the prices it is sent with
+        if (changed) {
+            generation.incrementAndGet();
+        }
+        nextExpiryMillis = earliestExpiryAfter(now);
+        log.debug("Refreshed {} active discounts", byProductId.size());
+    }
+
+    private synchronized void discountExpired(long expiryMillis) {
+        if (nextExpiryMillis == expiryMillis) {
+            generation.incrementAndGet();
+            nextExpiryMillis = earliestExpiryAfter(System.currentTimeMillis());
+        }
+    }
+
+    private Map<Long, DiscountDto> liveDiscounts(long now) {
+        Map<Long, DiscountDto> live = new HashMap<>();
+        cache.asMap().forEach((productId, discount) -> {
+            if (discount.expiryMillis > now) {
+                live.put(productId, discount.discount);
+            }
+        });
+        return live;
+    }
+
+    private static Map<Long, DiscountDto> discounts(Map<Long, ActiveDiscount> byProductId) {
+        Map<Long, DiscountDto> discounts = new HashMap<>();
+        byProductId.forEach((productId, discount) -> discounts.put(productId, discount.discount));
+        return discounts;
+    }
+
+    private long earliestExpiryAfter(long now) {
+        long earliest = NO_EXPIRY;
+        for (ActiveDiscount discount : cache.asMap().values()) {
+            if (discount.expiryMillis > now) {
+                earliest = Math.min(earliest, discount.expiryMillis);
+            }
+        }
+        return earliest;
+    }
+
+    private static long nanosUntilRemoval(ActiveDiscount discount) {
+        long millis = discount.expiryMillis + EXPIRY_GRACE_MILLIS - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+    }
+
+    private static final class ActiveDiscount {
+        private final DiscountDto discount;
+        private final long expiryMillis;
+
+        private ActiveDiscount(DiscountDto discount, long expiryMillis) {
+            this.discount = discount;
+            this.expiryMillis = expiryMillis;
+        }
+
+        // Null when the expiry time cannot be parsed
+        static ActiveDiscount of(DiscountDto discount) {
+            try {
+                LocalDateTime expiry = LocalDateTime.parse(String.valueOf(discount.getExpiryTime()), FORMATTER);
+                return new ActiveDiscount(discount, expiry.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            } catch (DateTimeParseException e) {
+                log.warn("Ignoring discount {} with invalid expiry time {}", discount.getId(), discount.getExpiryTime());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.telecom.ecommerce.cart.client.ProductServiceClient;
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Product details shared by all carts, used when adding items and to fill in the display fields
+ * of cart items stored without them.
+ * Concurrent misses for one product share a single upstream call. Entries read after the refresh
+ * interval are reloaded in the background while the cached value keeps being served, so hot
+ * products never block on product-service; entries not read before they expire are dropped.
+ * Published as the {@code cache.*} metrics of {@code product.cache}, plus
+ * {@code product.cache.hit.ratio} and {@code product.cache.upstream.calls}.
+ * The generation changes whenever the details served for a product may have changed: on every load,
+ * and once a background refresh has installed different details. It starts at a random value, so
+ * generations taken on different instances do not match by accident.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductCache {
+
+    private static final String CACHE_NAME = "product.cache";
+
+    private final LoadingCache<Long, ProductDto> cache;
+    private final Counter singleUpstreamCalls;
+    private final Counter batchUpstreamCalls;
+    private final AtomicLong generation = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    // Products whose last refresh returned different details, until the new details are in the cache
+    private final Set<Long> changedOnRefresh = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ProductCache(
+            ProductServiceClient productServiceClient,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds,
+            @Value("${product.cache.refresh-after-write-seconds:60}") long refreshAfterWriteSeconds
+    ) {
+        this.singleUpstreamCalls = upstreamCallCounter(meterRegistry, "single");
+        this.batchUpstreamCalls = upstreamCallCounter(meterRegistry, "batch");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(refreshAfterWriteSeconds))
+                .recordStats()
+                // Runs once a refreshed value has replaced the old one, so the generation is never
+                // newer than the details served with it
+                .removalListener((Long productId, ProductDto product, RemovalCause cause) -> {
+                    if (cause == RemovalCause.REPLACED && changedOnRefresh.remove(productId)) {
+                        generation.incrementAndGet();
+                    }
+                })
+                .build(new CacheLoader<Long, ProductDto>() {
+                    // Callers of get wait for a load, so nobody sees the new details before the generation moves on
+                    @Override
+                    public ProductDto load(Long productId) {
+                        singleUpstreamCalls.increment();
+                        ProductDto product = productServiceClient.getProductById(productId);
+                        generation.incrementAndGet();
+                        return product;
+                    }
+
+                    // The old details are served until the refresh completes
+                    @Override
+                    public ProductDto reload(Long productId, ProductDto oldProduct) {
+                        singleUpstreamCalls.increment();
+                        ProductDto product = productServiceClient.getProductById(productId);
+                        if (!Objects.equals(product, oldProduct)) {
+                            changedOnRefresh.add(productId);
+                        }
+                        return product;
+                    }
+
+                    // Misses from getAll are fetched with one batch request
+                    @Override
+                    public Map<Long, ProductDto> loadAll(Iterable<? extends Long> productIds) {
+                        List<Long> ids = new ArrayList<>();
+                        productIds.forEach(ids::add);
+                        batchUpstreamCalls.increment();
+                        Map<Long, ProductDto> products = productServiceClient.getProductsByIds(ids).stream()
+                                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+                        generation.incrementAndGet();
+                        return products;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of product lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    public ProductDto get(Long productId) {
+        return cache.get(productId);
+    }
+
+    public Map<Long, ProductDto> getAll(Collection<Long> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    private static Counter upstreamCallCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder(CACHE_NAME + ".upstream.calls")
+                .description("Requests sent to product-service to load or refresh products")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
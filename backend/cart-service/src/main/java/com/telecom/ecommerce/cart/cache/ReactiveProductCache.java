@@ -0,0 +1,135 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.telecom.ecommerce.cart.client.ReactiveProductServiceClient;
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive mode variant of {@link ProductCache}, with the same settings and metrics. Entries are
+ * futures, so concurrent misses for one product still share a single upstream call without
+ * blocking the caller. The generation moves on like that of {@link ProductCache}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductCache {
+
+    private static final String CACHE_NAME = "product.cache";
+
+    private final AsyncLoadingCache<Long, ProductDto> cache;
+    private final Counter singleUpstreamCalls;
+    private final Counter batchUpstreamCalls;
+    private final AtomicLong generation = new AtomicLong(ThreadLocalRandom.current().nextLong());
+    // Products whose last refresh returned different details, until the new details are in the cache
+    private final Set<Long> changedOnRefresh = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ReactiveProductCache(
+            ReactiveProductServiceClient productServiceClient,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds,
+            @Value("${product.cache.refresh-after-write-seconds:60}") long refreshAfterWriteSeconds
+    ) {
+        this.singleUpstreamCalls = upstreamCallCounter(meterRegistry, "single");
+        this.batchUpstreamCalls = upstreamCallCounter(meterRegistry, "batch");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(refreshAfterWriteSeconds))
+                .recordStats()
+                // Runs once a refreshed value has replaced the old one, so the generation is never
+                // newer than the details served with it
+                .removalListener((Long productId, ProductDto product, RemovalCause cause) -> {
+                    if (cause == RemovalCause.REPLACED && changedOnRefresh.remove(productId)) {
+                        generation.incrementAndGet();
+                    }
+                })
+                .buildAsync(new AsyncCacheLoader<Long, ProductDto>() {
+                    // Callers of get wait for a load, so nobody sees the new details before the generation moves on
+                    @Override
+                    public CompletableFuture<ProductDto> asyncLoad(Long productId, Executor executor) {
+                        singleUpstreamCalls.increment();
+                        return productServiceClient.getProductById(productId)
+                                .doOnSuccess(product -> generation.incrementAndGet())
+                                .toFuture();
+                    }
+
+                    // The old details are served until the refresh completes
+                    @Override
+                    public CompletableFuture<ProductDto> asyncReload(Long productId, ProductDto oldProduct, Executor executor) {
+                        singleUpstreamCalls.increment();
+                        return productServiceClient.getProductById(productId)
+                                .doOnSuccess(product -> {
+                                    if (!Objects.equals(product, oldProduct)) {
+                                        changedOnRefresh.add(productId);
+                                    }
+                                })
+                                .toFuture();
+                    }
+
+                    // Misses from getAll are fetched with one batch request
+                    @Override
+                    public CompletableFuture<Map<Long, ProductDto>> asyncLoadAll(Iterable<? extends Long> productIds, Executor executor) {
+                        List<Long> ids = new ArrayList<>();
+                        productIds.forEach(ids::add);
+                        batchUpstreamCalls.increment();
+                        return productServiceClient.getProductsByIds(ids)
+                                .map(products -> products.stream()
+                                        .collect(Collectors.toMap(ProductDto::getId, Function.identity())))
+                                .doOnSuccess(products -> generation.incrementAndGet())
+                                .toFuture();
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of product lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    // Completes empty when the product does not exist
+    public Mono<ProductDto> get(Long productId) {
+        return Mono.fromFuture(cache.get(productId));
+    }
+
+    public Mono<Map<Long, ProductDto>> getAll(Collection<Long> productIds) {
+        return Mono.fromFuture(cache.getAll(productIds));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    private static Counter upstreamCallCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder(CACHE_NAME + ".upstream.calls")
+                .description("Requests sent to product-service to load or refresh products")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.telecom.ecommerce.cart.client;
+
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.List;
+
+@FeignClient(name = "discount-service", path = "/api/discounts")
+public interface DiscountServiceClient {
+
+    // Active discounts that have not expired yet
+    @GetMapping
+    List<DiscountDto> getActiveDiscounts();
+}
@@ -4,10 +4,18 @@ import com.telecom.ecommerce.cart.dto.ProductDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "product-service", path = "/api/products")
 public interface ProductServiceClient {
 
     @GetMapping("/{id}")
     ProductDto getProductById(@PathVariable("id") Long id);
+
+    // One request for several products; unknown ids are left out of the result
+    @GetMapping("/batch")
+    List<ProductDto> getProductsByIds(@RequestParam("ids") Collection<Long> ids);
 } 
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.telecom.ecommerce.cart.client;
+
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link ProductServiceClient} for the reactive mode.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductServiceClient {
+
+    private static final ParameterizedTypeReference<List<ProductDto>> PRODUCT_LIST = new ParameterizedTypeReference<List<ProductDto>>() {
+    };
+
+    private final WebClient webClient;
+
+    @Autowired
+    public ReactiveProductServiceClient(
+            @LoadBalanced WebClient.Builder webClientBuilder,
+            @Value("${product.service.url}") String productServiceUrl
+    ) {
+        this.webClient = webClientBuilder.baseUrl(productServiceUrl).build();
+    }
+
+    // Completes empty when the product does not exist
+    public Mono<ProductDto> getProductById(Long id) {
+        return webClient.get()
+                .uri("/{id}", id)
+                .retrieve()
+                .bodyToMono(ProductDto.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+    }
+
+    // One request for several products; unknown ids are left out of the result
+    public Mono<List<ProductDto>> getProductsByIds(Collection<Long> ids) {
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/batch").queryParam("ids", ids).build())
+                .retrieve()
+                .bodyToMono(PRODUCT_LIST);
+    }
+}
@@ -0,0 +1,29 @@
+package com.telecom.ecommerce.cart.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+// Kafka is only used by the cart sweeper. Without a topic bean KafkaAdmin never connects, so
+// deployments that leave the sweeper off do not need a broker
+@Configuration
+@ConditionalOnProperty(name = "cart.sweeper.enabled", havingValue = "true")
+public class KafkaConfig {
+
+    @Bean
+    public NewTopic abandonedCartTopic() {
+        return TopicBuilder.name("abandoned-cart")
+                .partitions(1)
+                .replicas(1)
+                .build();
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+}
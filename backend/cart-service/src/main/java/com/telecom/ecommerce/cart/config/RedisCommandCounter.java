@@ -0,0 +1,85 @@
+package com.telecom.ecommerce.cart.config;
+
+import com.telecom.ecommerce.cart.token.CartTokenService;
+import io.lettuce.core.event.command.CommandFailedEvent;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import io.lettuce.core.event.command.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts the Redis commands issued by the current thread. Lettuce reports a command as started
+ * on the thread that writes it, so each request thread sees only its own commands; a pipeline or
+ * a script counts once per command sent.
+ * Commands that write are also counted service-wide as {@code cart.redis.writes}, reported against
+ * the visitors that got a new cart id as {@code cart.redis.writes.per.visitor}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RedisCommandCounter implements CommandListener {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    // Scripts count as writes, since every script the cart service runs writes
+    private static final Set<String> WRITE_COMMANDS = new HashSet<>(Arrays.asList(
+            "SET", "SETEX", "PSETEX", "SETNX", "MSET", "INCR", "INCRBY", "DECR", "DECRBY", "DEL", "UNLINK",
+            "EXPIRE", "PEXPIRE", "EXPIREAT", "PEXPIREAT", "PERSIST", "HSET", "HMSET", "HSETNX", "HDEL", "HINCRBY",
+            "ZADD", "ZREM", "ZREMRANGEBYSCORE", "EVAL", "EVALSHA"));
+
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final Counter writes;
+
+    @Autowired
+    public RedisCommandCounter(RedisConnectionFactory redisConnectionFactory, MeterRegistry meterRegistry) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.writes = Counter.builder("cart.redis.writes")
+                .description("Redis commands sent that write")
+                .register(meterRegistry);
+        Counter visitors = meterRegistry.counter(CartTokenService.NEW_VISITORS_METRIC);
+        Gauge.builder("cart.redis.writes.per.visitor", () -> visitors.count() > 0 ? writes.count() / visitors.count() : 0)
+                .description("Redis writes per visitor that was issued a new cart id")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void register() {
+        if (redisConnectionFactory instanceof LettuceConnectionFactory) {
+            ((LettuceConnectionFactory) redisConnectionFactory).getRequiredNativeClient().addListener(this);
+        }
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        COUNT.get()[0]++;
+        if (WRITE_COMMANDS.contains(event.getCommand().getType().name())) {
+            writes.increment();
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+    }
+}
@@ -1,33 +1,181 @@
 package com.telecom.ecommerce.cart.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.serialization.CompactCartSerializer;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.metrics.MicrometerCommandLatencyRecorder;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
+    public static final String REPLICA_READ_CONNECTION_FACTORY = "replicaReadConnectionFactory";
+
     @Value("${spring.redis.host}")
     private String redisHost;
 
     @Value("${spring.redis.port}")
     private int redisPort;
 
+    @Value("${cart.redis.topology:standalone}")
+    private String topology;
+
+    @Value("${spring.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    @Value("${cart.redis.replicas:}")
+    private List<String> replicas;
+
+    @Value("${spring.redis.timeout:60s}")
+    private Duration commandTimeout;
+
+    @Value("${cart.redis.pool.enabled:false}")
+    private boolean poolEnabled;
+
+    @Value("${cart.redis.pool.max-active:16}")
+    private int poolMaxActive;
+
+    @Value("${cart.redis.pool.max-idle:16}")
+    private int poolMaxIdle;
+
+    @Value("${cart.redis.pool.min-idle:0}")
+    private int poolMinIdle;
+
+    @Value("${cart.redis.pool.max-wait-ms:200}")
+    private long poolMaxWaitMs;
+
+    @Value("${cart.redis.pipelining.flush-batch-size:1}")
+    private int pipeliningFlushBatchSize;
+
+    // Records lettuce.command.completion and lettuce.command.firstresponse timers per command and node
+    @Bean(destroyMethod = "shutdown")
+    public ClientResources lettuceClientResources(
+            MeterRegistry meterRegistry,
+            @Value("${cart.redis.metrics.histogram:true}") boolean histogram
+    ) {
+        MicrometerOptions options = MicrometerOptions.builder()
+                .histogram(histogram)
+                .build();
+        return DefaultClientResources.builder()
+                .commandLatencyRecorder(new MicrometerCommandLatencyRecorder(meterRegistry, options))
+                .build();
+    }
+
+    // Declared as Lettuce so the reactive Redis templates are configured on it as well.
+    // Reads and writes go to the primaries; only the replica read factory below reads from replicas.
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
-        return new LettuceConnectionFactory(config);
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources lettuceClientResources) {
+        return connectionFactory(lettuceClientResources, ReadFrom.UPSTREAM);
+    }
+
+    // Used for reads that may trail the latest write slightly, such as rendering a cart
+    @Bean(REPLICA_READ_CONNECTION_FACTORY)
+    @ConditionalOnProperty(name = "cart.redis.read-from-replicas", havingValue = "true")
+    public LettuceConnectionFactory replicaReadConnectionFactory(ClientResources lettuceClientResources) {
+        if ("standalone".equals(topology)) {
+            throw new IllegalStateException("cart.redis.read-from-replicas needs the cluster or master-replica topology");
+        }
+        return connectionFactory(lettuceClientResources, ReadFrom.REPLICA_PREFERRED);
     }
-    
+
+    // Pools register with JMX as "cart-redis<n>"; this exports them as commons.pool2.* metrics
+    // (num.active, num.idle, num.waiters, mean/max borrow wait)
+    @Bean
+    @ConditionalOnProperty(name = "cart.redis.pool.enabled", havingValue = "true")
+    public CommonsObjectPool2Metrics redisPoolMetrics() {
+        return new CommonsObjectPool2Metrics();
+    }
+
+    private LettuceConnectionFactory connectionFactory(ClientResources clientResources, ReadFrom readFrom) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfig = poolEnabled
+                ? LettucePoolingClientConfiguration.builder().poolConfig(poolConfig())
+                : LettuceClientConfiguration.builder();
+        clientConfig.clientResources(clientResources).commandTimeout(commandTimeout);
+        // Setting a read preference on a standalone node would make Lettuce discover its role first
+        if (!"standalone".equals(topology)) {
+            clientConfig.readFrom(readFrom);
+        }
+
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(redisConfiguration(), clientConfig.build());
+        // Commands run on the single shared connection unless pooled connections are wanted
+        connectionFactory.setShareNativeConnection(!poolEnabled);
+        connectionFactory.setPipeliningFlushPolicy(pipeliningFlushPolicy());
+        return connectionFactory;
+    }
+
+    private RedisConfiguration redisConfiguration() {
+        switch (topology) {
+            case "standalone":
+                return new RedisStandaloneConfiguration(redisHost, redisPort);
+            case "cluster":
+                return new RedisClusterConfiguration(clusterNodes);
+            case "master-replica":
+                // Lettuce finds out which node is the master from the nodes' roles
+                RedisStaticMasterReplicaConfiguration config = new RedisStaticMasterReplicaConfiguration(redisHost, redisPort);
+                for (String replica : replicas) {
+                    int separator = replica.lastIndexOf(':');
+                    config.node(replica.substring(0, separator).trim(), Integer.parseInt(replica.substring(separator + 1).trim()));
+                }
+                return config;
+            default:
+                throw new IllegalStateException("Unknown cart.redis.topology: " + topology);
+        }
+    }
+
+    private GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig() {
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(poolMaxActive);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setMaxWait(Duration.ofMillis(poolMaxWaitMs));
+        poolConfig.setJmxNamePrefix("cart-redis");
+        return poolConfig;
+    }
+
+    // How executePipelined batches its writes: 0 flushes once when the pipeline closes,
+    // 1 flushes every command and larger values flush every that many commands
+    private LettuceConnection.PipeliningFlushPolicy pipeliningFlushPolicy() {
+        if (pipeliningFlushBatchSize <= 0) {
+            return LettuceConnection.PipeliningFlushPolicy.flushOnClose();
+        }
+        if (pipeliningFlushBatchSize == 1) {
+            return LettuceConnection.PipeliningFlushPolicy.flushEachCommand();
+        }
+        return LettuceConnection.PipeliningFlushPolicy.buffered(pipeliningFlushBatchSize);
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
@@ -37,13 +185,30 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory, ObjectMapper objectMapper) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
+    public RedisTemplate<String, Cart> cartRedisTemplate(
+            RedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper,
+            @Value("${cart.storage.serializer:json}") String serializer,
+            @Value("${cart.storage.compact.compression-threshold-bytes:1024}") int compressionThresholdBytes
+    ) {
+        Jackson2JsonRedisSerializer<Cart> jsonSerializer = new Jackson2JsonRedisSerializer<>(Cart.class);
+        // Slim cart items leave most fields null, so nulls are not written
+        jsonSerializer.setObjectMapper(objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL));
+
+        RedisTemplate<String, Cart> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
-        template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer(objectMapper));
+        // The compact serializer still reads carts stored as JSON
+        template.setValueSerializer("compact".equals(serializer)
+                ? new CompactCartSerializer(jsonSerializer, compressionThresholdBytes)
+                : jsonSerializer);
         return template;
     }
-} 
\ No newline at end of file
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
@@ -1,116 +1,147 @@
 package com.telecom.ecommerce.cart.controller;
 
 import com.telecom.ecommerce.cart.dto.AddToCartRequest;
+import com.telecom.ecommerce.cart.dto.BulkCartRequest;
 import com.telecom.ecommerce.cart.dto.CartResponse;
 import com.telecom.ecommerce.cart.dto.UpdateCartRequest;
 import com.telecom.ecommerce.cart.service.CartService;
-import com.telecom.ecommerce.cart.service.CartServiceImpl;
+import com.telecom.ecommerce.cart.token.CartTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.util.Arrays;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cart")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CartController {
 
     private final CartService cartService;
+    private final CartTokenService cartTokenService;
     private static final String CART_COOKIE_NAME = "cart_id";
     private static final int COOKIE_MAX_AGE = 60 * 60 * 24 * 30; // 30 days
     
     @Autowired
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, CartTokenService cartTokenService) {
         this.cartService = cartService;
+        this.cartTokenService = cartTokenService;
     }
 
+    // The ETag is the cart version and the content generation, so a revalidation only has to read the version
     @GetMapping
-    public ResponseEntity<CartResponse> getCart(HttpServletRequest request, HttpServletResponse response) {
+    public ResponseEntity<CartResponse> getCart(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
         String cartId = getOrCreateCartId(request, response);
+        // Taken before the cart is read, so the ETag is never newer than the body it is sent with
+        String generation = cartService.getContentGeneration();
+        if (ifNoneMatch != null) {
+            Optional<Long> version = cartService.getCartVersion(cartId);
+            if (version.isPresent()) {
+                String eTag = CartETags.eTag(version.get(), generation);
+                if (CartETags.matchesAny(ifNoneMatch, eTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+                }
+            }
+        }
         CartResponse cartResponse = cartService.getCartResponse(cartId);
-        return ResponseEntity.ok(cartResponse);
+        return CartETags.withETag(ResponseEntity.ok(), cartResponse, generation);
     }
 
     @PostMapping("/add")
     public ResponseEntity<CartResponse> addToCart(
             @Valid @RequestBody AddToCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest servletRequest,
             HttpServletResponse response
     ) {
         String cartId = getOrCreateCartId(servletRequest, response);
-        CartResponse cartResponse = cartService.addToCart(cartId, request.getProductId(), request.getQuantity());
-        return new ResponseEntity<>(cartResponse, HttpStatus.CREATED);
+        String generation = cartService.getContentGeneration();
+        CartResponse cartResponse = cartService.addToCart(
+                cartId, request.getProductId(), request.getQuantity(), CartETags.parseIfMatch(ifMatch));
+        return CartETags.withETag(ResponseEntity.status(HttpStatus.CREATED), cartResponse, generation);
     }
 
     @PutMapping("/update")
     public ResponseEntity<CartResponse> updateCart(
             @Valid @RequestBody UpdateCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest servletRequest,
             HttpServletResponse response
     ) {
         String cartId = getOrCreateCartId(servletRequest, response);
-        CartResponse cartResponse = cartService.updateCartItem(cartId, request.getProductId(), request.getQuantity());
-        return ResponseEntity.ok(cartResponse);
+        String generation = cartService.getContentGeneration();
+        CartResponse cartResponse = cartService.updateCartItem(
+                cartId, request.getProductId(), request.getQuantity(), CartETags.parseIfMatch(ifMatch));
+        return CartETags.withETag(ResponseEntity.ok(), cartResponse, generation);
     }
 
     @DeleteMapping("/remove")
     public ResponseEntity<CartResponse> removeFromCart(
             @RequestBody UpdateCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest servletRequest,
+            HttpServletResponse response
+    ) {
+        String cartId = getOrCreateCartId(servletRequest, response);
+        String generation = cartService.getContentGeneration();
+        CartResponse cartResponse = cartService.removeFromCart(cartId, request.getProductId(), CartETags.parseIfMatch(ifMatch));
+        return CartETags.withETag(ResponseEntity.ok(), cartResponse, generation);
+    }
+
+    @PatchMapping("/items")
+    public ResponseEntity<CartResponse> applyOperations(
+            @Valid @RequestBody BulkCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             HttpServletRequest servletRequest,
             HttpServletResponse response
     ) {
         String cartId = getOrCreateCartId(servletRequest, response);
-        CartResponse cartResponse = cartService.removeFromCart(cartId, request.getProductId());
-        return ResponseEntity.ok(cartResponse);
+        String generation = cartService.getContentGeneration();
+        CartResponse cartResponse = cartService.applyOperations(cartId, request.getOperations(), CartETags.parseIfMatch(ifMatch));
+        return CartETags.withETag(ResponseEntity.ok(), cartResponse, generation);
     }
 
     @DeleteMapping
     public ResponseEntity<Void> clearCart(
             HttpServletRequest servletRequest
     ) {
-        Cookie[] cookies = servletRequest.getCookies();
-        if (cookies != null) {
-            Optional<Cookie> cartCookie = Arrays.stream(cookies)
-                    .filter(cookie -> CART_COOKIE_NAME.equals(cookie.getName()))
-                    .findFirst();
-
-            cartCookie.ifPresent(cookie -> cartService.deleteCart(cookie.getValue()));
+        Cookie cartCookie = WebUtils.getCookie(servletRequest, CART_COOKIE_NAME);
+        if (cartCookie != null) {
+            cartTokenService.verify(cartCookie.getValue())
+                    .or(() -> cartTokenService.legacyCartId(cartCookie.getValue()))
+                    .ifPresent(cartService::deleteCart);
         }
         return ResponseEntity.noContent().build();
     }
 
+    // Cart ids come from signed tokens only; a missing, forged or random cookie gets a fresh cart id
     private String getOrCreateCartId(HttpServletRequest request, HttpServletResponse response) {
-        Cookie[] cookies = request.getCookies();
-        String cartId = null;
-
-        // Try to find the cart ID from cookies
-        if (cookies != null) {
-            Optional<Cookie> cartCookie = Arrays.stream(cookies)
-                    .filter(cookie -> CART_COOKIE_NAME.equals(cookie.getName()))
-                    .findFirst();
-
-            if (cartCookie.isPresent()) {
-                cartId = cartCookie.get().getValue();
-            }
-        }
-
-        // If no cart ID found, create a new one
-        if (cartId == null) {
-            cartId = CartServiceImpl.generateCartId();
-            Cookie cartCookie = new Cookie(CART_COOKIE_NAME, cartId);
-            cartCookie.setMaxAge(COOKIE_MAX_AGE);
-            cartCookie.setPath("/");
-            cartCookie.setHttpOnly(true);
-            response.addCookie(cartCookie);
+        Cookie cartCookie = WebUtils.getCookie(request, CART_COOKIE_NAME);
+        String token = cartCookie != null ? cartCookie.getValue() : null;
+        Optional<String> cartId = cartTokenService.verify(token);
+        if (cartId.isPresent()) {
+            return cartId.get();
         }
 
-        return cartId;
+        String newCartId = cartTokenService.legacyCartId(token).orElseGet(cartTokenService::newCartId);
+        Cookie newCookie = new Cookie(CART_COOKIE_NAME, cartTokenService.issue(newCartId));
+        newCookie.setMaxAge(COOKIE_MAX_AGE);
+        newCookie.setPath("/");
+        newCookie.setHttpOnly(true);
+        response.addCookie(newCookie);
+        return newCartId;
     }
-} 
\ No newline at end of file
+}
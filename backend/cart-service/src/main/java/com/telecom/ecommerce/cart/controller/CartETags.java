@@ -0,0 +1,62 @@
+package com.telecom.ecommerce.cart.controller;
+
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+// ETag handling shared by the servlet and reactive cart controllers. The ETag is "<version>-<generation>":
+// discounts and product details are applied on read, so a cart can read differently at the same version
+final class CartETags {
+
+    private CartETags() {
+    }
+
+    static String eTag(long version, String generation) {
+        return version + "-" + generation;
+    }
+
+    static ResponseEntity<CartResponse> withETag(ResponseEntity.BodyBuilder builder, CartResponse cartResponse, String generation) {
+        if (cartResponse.getVersion() != null) {
+            builder.eTag(eTag(cartResponse.getVersion(), generation));
+        }
+        return builder.body(cartResponse);
+    }
+
+    // If-None-Match may list several tags and uses weak comparison, so W/ prefixes are ignored
+    static boolean matchesAny(String ifNoneMatch, String etag) {
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("\"" + etag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the version a mutation expects, or null when there is no precondition.
+    // If-Match uses strong comparison, so weak or unknown tags can never match. A write only depends
+    // on the stored cart, so the generation is ignored; a bare version is accepted too.
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            String tag = value.substring(1, value.length() - 1);
+            int generationStart = tag.indexOf('-');
+            try {
+                return Long.valueOf(generationStart < 0 ? tag : tag.substring(0, generationStart));
+            } catch (NumberFormatException e) {
+                // Falls through to the precondition failure below
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match the cart version");
+    }
+}
@@ -0,0 +1,142 @@
+package com.telecom.ecommerce.cart.controller;
+
+import com.telecom.ecommerce.cart.dto.AddToCartRequest;
+import com.telecom.ecommerce.cart.dto.BulkCartRequest;
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import com.telecom.ecommerce.cart.dto.UpdateCartRequest;
+import com.telecom.ecommerce.cart.service.ReactiveCartService;
+import com.telecom.ecommerce.cart.token.CartTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The cart API of {@link CartController} for the reactive mode, served by WebFlux on Netty.
+ */
+@RestController
+@RequestMapping("/api/cart")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCartController {
+
+    private final ReactiveCartService cartService;
+    private final CartTokenService cartTokenService;
+    private static final String CART_COOKIE_NAME = "cart_id";
+    private static final Duration COOKIE_MAX_AGE = Duration.ofDays(30);
+
+    @Autowired
+    public ReactiveCartController(ReactiveCartService cartService, CartTokenService cartTokenService) {
+        this.cartService = cartService;
+        this.cartTokenService = cartTokenService;
+    }
+
+    // The ETag is the cart version and the content generation, so a revalidation only has to read the version
+    @GetMapping
+    public Mono<ResponseEntity<CartResponse>> getCart(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            ServerWebExchange exchange
+    ) {
+        String cartId = getOrCreateCartId(exchange);
+        // Taken before the cart is read, so the ETag is never newer than the body it is sent with
+        String generation = cartService.getContentGeneration();
+        Mono<ResponseEntity<CartResponse>> cart = Mono.defer(() -> cartService.getCartResponse(cartId)
+                .map(cartResponse -> CartETags.withETag(ResponseEntity.ok(), cartResponse, generation)));
+        if (ifNoneMatch == null) {
+            return cart;
+        }
+        return cartService.getCartVersion(cartId)
+                .map(version -> CartETags.eTag(version, generation))
+                .filter(eTag -> CartETags.matchesAny(ifNoneMatch, eTag))
+                .map(eTag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<CartResponse>build())
+                .switchIfEmpty(cart);
+    }
+
+    @PostMapping("/add")
+    public Mono<ResponseEntity<CartResponse>> addToCart(
+            @Valid @RequestBody AddToCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerWebExchange exchange
+    ) {
+        String cartId = getOrCreateCartId(exchange);
+        String generation = cartService.getContentGeneration();
+        return cartService.addToCart(cartId, request.getProductId(), request.getQuantity(), CartETags.parseIfMatch(ifMatch))
+                .map(cartResponse -> CartETags.withETag(ResponseEntity.status(HttpStatus.CREATED), cartResponse, generation));
+    }
+
+    @PutMapping("/update")
+    public Mono<ResponseEntity<CartResponse>> updateCart(
+            @Valid @RequestBody UpdateCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerWebExchange exchange
+    ) {
+        String cartId = getOrCreateCartId(exchange);
+        String generation = cartService.getContentGeneration();
+        return cartService.updateCartItem(cartId, request.getProductId(), request.getQuantity(), CartETags.parseIfMatch(ifMatch))
+                .map(cartResponse -> CartETags.withETag(ResponseEntity.ok(), cartResponse, generation));
+    }
+
+    @DeleteMapping("/remove")
+    public Mono<ResponseEntity<CartResponse>> removeFromCart(
+            @RequestBody UpdateCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerWebExchange exchange
+    ) {
+        String cartId = getOrCreateCartId(exchange);
+        String generation = cartService.getContentGeneration();
+        return cartService.removeFromCart(cartId, request.getProductId(), CartETags.parseIfMatch(ifMatch))
+                .map(cartResponse -> CartETags.withETag(ResponseEntity.ok(), cartResponse, generation));
+    }
+
+    @PatchMapping("/items")
+    public Mono<ResponseEntity<CartResponse>> applyOperations(
+            @Valid @RequestBody BulkCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerWebExchange exchange
+    ) {
+        String cartId = getOrCreateCartId(exchange);
+        String generation = cartService.getContentGeneration();
+        return cartService.applyOperations(cartId, request.getOperations(), CartETags.parseIfMatch(ifMatch))
+                .map(cartResponse -> CartETags.withETag(ResponseEntity.ok(), cartResponse, generation));
+    }
+
+    @DeleteMapping
+    public Mono<ResponseEntity<Void>> clearCart(ServerWebExchange exchange) {
+        HttpCookie cartCookie = exchange.getRequest().getCookies().getFirst(CART_COOKIE_NAME);
+        Mono<Void> delete = Mono.empty();
+        if (cartCookie != null) {
+            delete = cartTokenService.verify(cartCookie.getValue())
+                    .or(() -> cartTokenService.legacyCartId(cartCookie.getValue()))
+                    .map(cartService::deleteCart)
+                    .orElse(Mono.empty());
+        }
+        return delete.then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    // Cart ids come from signed tokens only; a missing, forged or random cookie gets a fresh cart id
+    private String getOrCreateCartId(ServerWebExchange exchange) {
+        HttpCookie cartCookie = exchange.getRequest().getCookies().getFirst(CART_COOKIE_NAME);
+        String token = cartCookie != null ? cartCookie.getValue() : null;
+        Optional<String> cartId = cartTokenService.verify(token);
+        if (cartId.isPresent()) {
+            return cartId.get();
+        }
+
+        String newCartId = cartTokenService.legacyCartId(token).orElseGet(cartTokenService::newCartId);
+        exchange.getResponse().addCookie(ResponseCookie.from(CART_COOKIE_NAME, cartTokenService.issue(newCartId))
+                .maxAge(COOKIE_MAX_AGE)
+                .path("/")
+                .httpOnly(true)
+                .build());
+        return newCartId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.telecom.ecommerce.cart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCartRequest {
+    @NotEmpty(message = "At least one operation is required")
+    private List<@Valid CartItemOperation> operations;
+    
+    // Manual getter methods
+    public List<CartItemOperation> getOperations() {
+        return operations;
+    }
+    
+    // Manual setter methods
+    public void setOperations(List<CartItemOperation> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,59 @@
+package com.telecom.ecommerce.cart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemOperation {
+
+    public enum Type {
+        // Adds the quantity to the line, creating it if needed
+        ADD,
+        // Sets the quantity of an existing line; 0 removes it
+        UPDATE,
+        REMOVE
+    }
+
+    @NotNull(message = "Operation is required")
+    private Type op;
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @Min(value = 0, message = "Quantity must be at least 0")
+    private Integer quantity;
+    
+    // Manual getter methods
+    public Type getOp() {
+        return op;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    // Manual setter methods
+    public void setOp(Type op) {
+        this.op = op;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
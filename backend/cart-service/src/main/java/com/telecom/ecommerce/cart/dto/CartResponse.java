@@ -18,6 +18,7 @@ public class CartResponse {
     private List<CartItem> items;
     private BigDecimal total;
     private String expiresAt;
+    private Long version;
     
     // Manual getter methods
     public String getCartId() {
@@ -36,6 +37,10 @@ public class CartResponse {
         return expiresAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     // Manual setter methods
     public void setCartId(String cartId) {
         this.cartId = cartId;
@@ -52,4 +57,8 @@ public class CartResponse {
     public void setExpiresAt(String expiresAt) {
         this.expiresAt = expiresAt;
     }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
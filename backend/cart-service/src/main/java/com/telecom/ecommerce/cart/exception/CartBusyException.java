@@ -0,0 +1,13 @@
+package com.telecom.ecommerce.cart.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Raised when an unconditional write keeps losing to concurrent writes of the same cart; the client can retry
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CartBusyException extends RuntimeException {
+
+    public CartBusyException(String cartId, int attempts) {
+        super("Cart " + cartId + " changed concurrently on each of " + attempts + " attempts");
+    }
+}
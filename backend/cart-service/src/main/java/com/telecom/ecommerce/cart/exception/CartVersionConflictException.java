@@ -0,0 +1,20 @@
+package com.telecom.ecommerce.cart.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Raised when an If-Match version no longer matches the stored cart
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class CartVersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public CartVersionConflictException(String cartId, Long expectedVersion, Long currentVersion) {
+        super("Cart " + cartId + " is at version " + currentVersion + ", expected " + expectedVersion);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,58 @@
+package com.telecom.ecommerce.cart.filter;
+
+import com.telecom.ecommerce.cart.config.RedisCommandCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records how many Redis commands each cart API request issued as the
+ * {@code cart.redis.commands} distribution summary, tagged by method and URI pattern.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RedisCommandMetricsFilter extends OncePerRequestFilter {
+
+    private static final String METRIC_NAME = "cart.redis.commands";
+
+    private final RedisCommandCounter redisCommandCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public RedisCommandMetricsFilter(RedisCommandCounter redisCommandCounter, MeterRegistry meterRegistry) {
+        this.redisCommandCounter = redisCommandCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        redisCommandCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("Redis commands issued per HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .record(redisCommandCounter.current());
+        }
+    }
+}
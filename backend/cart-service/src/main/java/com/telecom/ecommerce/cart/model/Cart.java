@@ -1,15 +1,23 @@
 package com.telecom.ecommerce.cart.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Data
 @Builder
@@ -19,19 +27,34 @@ public class Cart implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private String id;
-    private List<CartItem> items = new ArrayList<>();
+    // Keyed by product id, in the order the products were added; there is at most one line per product
+    @Builder.Default
+    private Map<Long, CartItem> items = new LinkedHashMap<>();
     private BigDecimal total;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime expiresAt;
+    // Stored next to the cart by the repository and bumped on every write
+    @JsonIgnore
+    private Long version;
+    // What getItems returns, built on first use after the lines changed; never stored
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient List<CartItem> itemList;
     
     // Manual getter methods
     public String getId() {
         return id;
     }
     
+    // Read-only, in insertion order, and reused until a line is added or removed; change the cart
+    // through addItem, findItem and removeItem
     public List<CartItem> getItems() {
-        return items;
+        if (itemList == null) {
+            itemList = Collections.unmodifiableList(new ArrayList<>(items.values()));
+        }
+        return itemList;
     }
     
     public BigDecimal getTotal() {
@@ -50,13 +73,22 @@ public class Cart implements Serializable {
         return expiresAt;
     }
     
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
+    }
+    
     // Manual setter methods
     public void setId(String id) {
         this.id = id;
     }
     
     public void setItems(List<CartItem> items) {
-        this.items = items;
+        this.items = new LinkedHashMap<>();
+        this.itemList = null;
+        if (items != null) {
+            items.forEach(this::addItem);
+        }
     }
     
     public void setTotal(BigDecimal total) {
@@ -74,4 +106,38 @@ public class Cart implements Serializable {
     public void setExpiresAt(LocalDateTime expiresAt) {
         this.expiresAt = expiresAt;
     }
-} 
\ No newline at end of file
+    
+    @JsonIgnore
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public Optional<CartItem> findItem(Long productId) {
+        return Optional.ofNullable(items.get(productId));
+    }
+    
+    // Adds the line, or adds its quantity to the existing line for the same product
+    public void addItem(CartItem item) {
+        CartItem existing = items.putIfAbsent(item.getProductId(), item);
+        if (existing == null) {
+            itemList = null;
+        } else if (existing != item) {
+            existing.setQuantity(existing.getQuantity() + item.getQuantity());
+        }
+    }
+    
+    public boolean removeItem(Long productId) {
+        if (items.remove(productId) == null) {
+            return false;
+        }
+        itemList = null;
+        return true;
+    }
+    
+    // A detached cart with copies of the lines, for changing without touching this one
+    public Cart copy() {
+        Map<Long, CartItem> copiedItems = new LinkedHashMap<>();
+        items.forEach((productId, item) -> copiedItems.put(productId, item.copy()));
+        return new Cart(id, copiedItems, total, createdAt, updatedAt, expiresAt, version, null);
+    }
+}
@@ -1,5 +1,6 @@
 package com.telecom.ecommerce.cart.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,6 +29,11 @@ public class CartItem implements Serializable {
     // Discount info
     private Integer discountPercentage;
     private String discountExpiry;
+
+    // The price in whole cents as CartTotalCalculator rounds it, kept until the price changes, since
+    // totals are recalculated on every read; never stored
+    @JsonIgnore
+    private transient Long priceCents;
     
     // Manual getter methods
     public Long getProductId() {
@@ -74,6 +80,11 @@ public class CartItem implements Serializable {
         return discountExpiry;
     }
     
+    @JsonIgnore
+    public Long getPriceCents() {
+        return priceCents;
+    }
+    
     // Manual setter methods
     public void setProductId(Long productId) {
         this.productId = productId;
@@ -89,6 +100,7 @@ public class CartItem implements Serializable {
     
     public void setPrice(BigDecimal price) {
         this.price = price;
+        this.priceCents = null;
     }
     
     public void setType(String type) {
@@ -118,4 +130,15 @@ public class CartItem implements Serializable {
     public void setDiscountExpiry(String discountExpiry) {
         this.discountExpiry = discountExpiry;
     }
-} 
\ No newline at end of file
+    
+    @JsonIgnore
+    public void setPriceCents(Long priceCents) {
+        this.priceCents = priceCents;
+    }
+    
+    // A detached line with the same fields, for changing without touching this one
+    public CartItem copy() {
+        return new CartItem(productId, name, description, price, type, imageUrl, dataAllowance, brand, quantity,
+                discountPercentage, discountExpiry, priceCents);
+    }
+}
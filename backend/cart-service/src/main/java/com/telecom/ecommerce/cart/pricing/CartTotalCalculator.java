@@ -0,0 +1,79 @@
+package com.telecom.ecommerce.cart.pricing;
+
+import com.telecom.ecommerce.cart.cache.DiscountCache;
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Calculates cart totals in whole cents using {@code long} arithmetic. Rounding rules:
+ * <ul>
+ *   <li>a unit price is rounded half-up to the cent before anything else;</li>
+ *   <li>a discounted unit price is {@code price * (100 - percentage) / 100}, rounded half-up to
+ *       the cent, with the percentage clamped to 0..100;</li>
+ *   <li>line totals are the discounted unit price times the quantity, and are summed exactly.</li>
+ * </ul>
+ * The result is converted back to a {@link BigDecimal} with scale 2 only once per cart.
+ */
+@Component
+public class CartTotalCalculator {
+
+    private static final int CENTS_SCALE = 2;
+
+    private final DiscountCache discountCache;
+
+    @Autowired
+    public CartTotalCalculator(DiscountCache discountCache) {
+        this.discountCache = discountCache;
+    }
+
+    // Applies the discounts active right now to the items, then recalculates the total
+    public void updateTotal(Cart cart) {
+        List<CartItem> items = cart.getItems();
+        long totalCents = 0;
+        for (int i = 0; i < items.size(); i++) {
+            CartItem item = items.get(i);
+            applyCurrentDiscount(item);
+            int discountPercentage = item.getDiscountPercentage() != null ? item.getDiscountPercentage() : 0;
+            totalCents = Math.addExact(totalCents,
+                    lineTotalCents(unitPriceCents(item), discountPercentage, item.getQuantity()));
+        }
+        cart.setTotal(BigDecimal.valueOf(totalCents, CENTS_SCALE));
+    }
+
+    static long lineTotalCents(long unitPriceCents, int discountPercentage, int quantity) {
+        int percentage = Math.min(Math.max(discountPercentage, 0), 100);
+        long discountedCents = unitPriceCents;
+        if (percentage > 0) {
+            // Half-up rounding of a non-negative amount: add half the divisor before dividing
+            discountedCents = (Math.multiplyExact(unitPriceCents, 100 - percentage) + 50) / 100;
+        }
+        return Math.multiplyExact(discountedCents, quantity);
+    }
+
+    // Rounded once per item and kept on it, so repricing a cart allocates nothing per line
+    private static long unitPriceCents(CartItem item) {
+        Long cents = item.getPriceCents();
+        if (cents == null) {
+            cents = toCents(item.getPrice());
+            item.setPriceCents(cents);
+        }
+        return cents;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void applyCurrentDiscount(CartItem item) {
+        DiscountDto discount = discountCache.get(item.getProductId());
+        item.setDiscountPercentage(discount != null ? discount.getPercentage() : null);
+        item.setDiscountExpiry(discount != null ? discount.getExpiryTime() : null);
+    }
+}
@@ -0,0 +1,79 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Optional;
+
+abstract class AbstractCartRepository implements CartRepository {
+
+    protected final CartTotalCalculator cartTotalCalculator;
+    protected final int cartExpirationHours;
+    protected final int cartExpirationRefreshBelowHours;
+    protected final boolean cluster;
+
+    protected AbstractCartRepository(
+            CartTotalCalculator cartTotalCalculator,
+            int cartExpirationHours,
+            int cartExpirationRefreshBelowHours,
+            String redisTopology
+    ) {
+        this.cartTotalCalculator = cartTotalCalculator;
+        this.cartExpirationHours = cartExpirationHours;
+        this.cartExpirationRefreshBelowHours = cartExpirationRefreshBelowHours;
+        this.cluster = "cluster".equals(redisTopology);
+    }
+
+    @Override
+    public Optional<Cart> findByIdFromReplica(String cartId) {
+        return findById(cartId);
+    }
+
+    @Override
+    public Cart addItem(String cartId, CartItem item, Long expectedVersion) {
+        return applyMutations(cartId, Collections.singletonList(CartMutation.add(item)), expectedVersion);
+    }
+
+    @Override
+    public Cart updateItemQuantity(String cartId, Long productId, int quantity, Long expectedVersion) {
+        return applyMutations(cartId, Collections.singletonList(CartMutation.setQuantity(productId, quantity)), expectedVersion);
+    }
+
+    @Override
+    public Cart removeItem(String cartId, Long productId, Long expectedVersion) {
+        return applyMutations(cartId, Collections.singletonList(CartMutation.remove(productId)), expectedVersion);
+    }
+
+    // In a cluster the activity set lives in another slot than the cart, so the write scripts cannot
+    // touch it and the write is recorded with a separate ZADD instead
+    boolean scriptsTrackActivity() {
+        return !cluster;
+    }
+
+    // Keys of one cart that a script uses together carry the cart id as hash tag, so they share a cluster slot
+    protected String keyTag(String cartId) {
+        return cluster ? "{" + cartId + "}" : cartId;
+    }
+
+    protected Cart newCart(String cartId, LocalDateTime now) {
+        // Manual builder implementation
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        cart.setTotal(BigDecimal.ZERO);
+        cart.setCreatedAt(now);
+        cart.setUpdatedAt(now);
+        cart.setExpiresAt(now.plusHours(cartExpirationHours));
+        return cart;
+    }
+
+    // The TTL is only pushed out once less than the refresh threshold remains,
+    // so most writes do not have to touch it
+    protected boolean shouldRefreshExpiry(Cart cart, LocalDateTime now) {
+        return cart.getExpiresAt() == null
+                || cart.getExpiresAt().isBefore(now.plusHours(cartExpirationRefreshBelowHours));
+    }
+}
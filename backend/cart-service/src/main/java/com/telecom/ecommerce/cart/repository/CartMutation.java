@@ -0,0 +1,57 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.model.CartItem;
+
+/**
+ * One change to a cart line, applied by {@link CartRepository#applyMutations}.
+ */
+public final class CartMutation {
+
+    public enum Type {
+        ADD,
+        SET_QUANTITY,
+        REMOVE
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final int quantity;
+    private final CartItem item;
+
+    private CartMutation(Type type, Long productId, int quantity, CartItem item) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.item = item;
+    }
+
+    // Adds the item, or its quantity to the existing line for the same product
+    public static CartMutation add(CartItem item) {
+        return new CartMutation(Type.ADD, item.getProductId(), item.getQuantity(), item);
+    }
+
+    // Only changes a line that is already in the cart
+    public static CartMutation setQuantity(Long productId, int quantity) {
+        return new CartMutation(Type.SET_QUANTITY, productId, quantity, null);
+    }
+
+    public static CartMutation remove(Long productId) {
+        return new CartMutation(Type.REMOVE, productId, 0, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public CartItem getItem() {
+        return item;
+    }
+}
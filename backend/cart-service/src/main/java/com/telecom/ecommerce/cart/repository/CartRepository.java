@@ -0,0 +1,44 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.exception.CartVersionConflictException;
+import com.telecom.ecommerce.cart.model.CartItem;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistence for carts. The active implementation is selected with the
+ * {@code cart.storage.mode} property ({@code value} or {@code hash}).
+ * Mutations create the cart when it does not exist yet and return the
+ * resulting cart with its total recalculated. Every write bumps the cart version;
+ * when an expected version is passed and no longer matches, the write is rejected
+ * with a {@link CartVersionConflictException}.
+ */
+public interface CartRepository {
+
+    // Sorted set of cart ids scored by their last write (epoch millis), kept up to date by every write
+    String ACTIVITY_KEY = "cart:activity";
+
+    Optional<Cart> findById(String cartId);
+
+    // Like findById, but served by a replica when replica reads are enabled, so it may trail the
+    // latest write slightly; for display only, never as the base of a write
+    Optional<Cart> findByIdFromReplica(String cartId);
+
+    // Reads only the version, without loading the cart
+    Optional<Long> findVersion(String cartId);
+
+    Cart create(String cartId);
+
+    Cart addItem(String cartId, CartItem item, Long expectedVersion);
+
+    Cart updateItemQuantity(String cartId, Long productId, int quantity, Long expectedVersion);
+
+    Cart removeItem(String cartId, Long productId, Long expectedVersion);
+
+    // Applies the mutations in order as one write; a null expected version skips the check
+    Cart applyMutations(String cartId, List<CartMutation> mutations, Long expectedVersion);
+
+    void deleteById(String cartId);
+}
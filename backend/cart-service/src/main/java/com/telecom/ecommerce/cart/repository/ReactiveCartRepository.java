@@ -0,0 +1,28 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking cart persistence for the reactive mode, with the same semantics as
+ * {@link CartRepository}. Lookups complete empty when there is no cart.
+ */
+public interface ReactiveCartRepository {
+
+    Mono<Cart> findById(String cartId);
+
+    // Like findById, but served by a replica when replica reads are enabled; for display only
+    Mono<Cart> findByIdFromReplica(String cartId);
+
+    // Reads only the version, without loading the cart
+    Mono<Long> findVersion(String cartId);
+
+    Mono<Cart> create(String cartId);
+
+    // Applies the mutations in order as one write; a null expected version skips the check
+    Mono<Cart> applyMutations(String cartId, List<CartMutation> mutations, Long expectedVersion);
+
+    Mono<Void> deleteById(String cartId);
+}
@@ -0,0 +1,110 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.config.RedisConfig;
+import com.telecom.ecommerce.cart.model.Cart;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive access to the hash layout of {@link RedisHashCartRepository}, running the same
+ * mutation script over the non-blocking Lettuce API. Carts still stored as blobs are not
+ * migrated in this mode.
+ */
+@Repository
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "hash")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRedisHashCartRepository implements ReactiveCartRepository {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    // Null unless cart.redis.read-from-replicas is on
+    private final ReactiveStringRedisTemplate replicaTemplate;
+    // Builds the script arguments and reads the results; its own blocking calls are not used
+    private final RedisHashCartRepository hashLayout;
+
+    @Autowired
+    public ReactiveRedisHashCartRepository(
+            ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+            RedisHashCartRepository redisHashCartRepository,
+            @Qualifier(RedisConfig.REPLICA_READ_CONNECTION_FACTORY) @Nullable LettuceConnectionFactory replicaReadConnectionFactory
+    ) {
+        this.redisTemplate = reactiveStringRedisTemplate;
+        this.hashLayout = redisHashCartRepository;
+        this.replicaTemplate = replicaReadConnectionFactory != null
+                ? new ReactiveStringRedisTemplate(replicaReadConnectionFactory)
+                : null;
+    }
+
+    @Override
+    public Mono<Cart> findById(String cartId) {
+        return read(redisTemplate, cartId);
+    }
+
+    @Override
+    public Mono<Cart> findByIdFromReplica(String cartId) {
+        if (replicaTemplate == null) {
+            return findById(cartId);
+        }
+        // A cart written moments ago may not have reached the replica yet
+        return read(replicaTemplate, cartId).switchIfEmpty(Mono.defer(() -> findById(cartId)));
+    }
+
+    private Mono<Cart> read(ReactiveStringRedisTemplate template, String cartId) {
+        return template.<Object, Object>opsForHash()
+                .entries(key(cartId))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(fields -> fields.isEmpty()
+                        ? Mono.empty()
+                        : Mono.justOrEmpty(hashLayout.readCart(cartId, fields)));
+    }
+
+    @Override
+    public Mono<Long> findVersion(String cartId) {
+        return redisTemplate.<Object, Object>opsForHash()
+                .get(key(cartId), RedisHashCartRepository.VERSION_FIELD)
+                .map(version -> Long.valueOf((String) version));
+    }
+
+    @Override
+    public Mono<Cart> create(String cartId) {
+        return applyMutations(cartId, Collections.emptyList(), null);
+    }
+
+    @Override
+    public Mono<Cart> applyMutations(String cartId, List<CartMutation> mutations, Long expectedVersion) {
+        return Mono.defer(() -> {
+            List<String> args = hashLayout.mutationArgs(cartId, mutations, expectedVersion);
+            Mono<Cart> cart = redisTemplate
+                    .execute(hashLayout.getMutationScript(), hashLayout.mutationKeys(cartId), args)
+                    .next()
+                    .map(result -> hashLayout.readMutationResult(cartId, result, expectedVersion));
+            if (hashLayout.scriptsTrackActivity()) {
+                return cart;
+            }
+            return cart.flatMap(written -> redisTemplate.opsForZSet()
+                    .add(CartRepository.ACTIVITY_KEY, cartId, hashLayout.activityScore(args))
+                    .thenReturn(written));
+        });
+    }
+
+    @Override
+    public Mono<Void> deleteById(String cartId) {
+        return redisTemplate.delete(key(cartId))
+                .then(redisTemplate.opsForZSet().remove(CartRepository.ACTIVITY_KEY, cartId))
+                .then();
+    }
+
+    private static String key(String cartId) {
+        return RedisHashCartRepository.CART_KEY_PREFIX + cartId;
+    }
+}
@@ -0,0 +1,327 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telecom.ecommerce.cart.config.RedisConfig;
+import com.telecom.ecommerce.cart.exception.CartVersionConflictException;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores each cart as a Redis hash under {@code cart:hash:<id>}: a {@code header} field holding
+ * the timestamps, a {@code version} counter, plus an {@code item:<productId>} snapshot and a
+ * {@code qty:<productId>} counter per line. Mutations run server-side in {@code scripts/cart-mutate.lua}, so each batch of them is
+ * a single atomic round trip (EVALSHA) that returns the resulting cart and extends the TTL once it drops
+ * below the refresh threshold.
+ * Totals are derived from the items on read. Items are returned ordered by product id since hash
+ * field order is not guaranteed.
+ * In a Redis Cluster the script only touches the cart hash, and the write is added to the activity
+ * set with a separate ZADD, since that set lives in another slot.
+ * Carts still stored in the value layout are moved into a hash by {@code scripts/cart-migrate.lua} when
+ * they are first read, or when the mutation script reports that it found one. Not available in a
+ * cluster, where the two layouts of a cart live in different slots.
+ */
+@Repository
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "hash")
+public class RedisHashCartRepository extends AbstractCartRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisHashCartRepository.class);
+    static final String CART_KEY_PREFIX = "cart:hash:";
+    private static final String HEADER_FIELD = "header";
+    static final String VERSION_FIELD = "version";
+    private static final String CONFLICT_RESULT = "conflict";
+    private static final String LEGACY_RESULT = "legacy";
+    private static final int MIGRATION_ATTEMPTS = 3;
+    private static final String ITEM_FIELD_PREFIX = "item:";
+    private static final String QUANTITY_FIELD_PREFIX = "qty:";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisScript<List> mutationScript;
+    private final RedisScript<Long> migrationScript;
+    private final long cartExpirationSeconds;
+
+    // Reads carts still stored in the value layout; null once migration is switched off
+    private final RedisValueCartRepository legacyRepository;
+    // Null unless cart.redis.read-from-replicas is on
+    private final StringRedisTemplate replicaTemplate;
+
+    @Autowired
+    public RedisHashCartRepository(
+            StringRedisTemplate stringRedisTemplate,
+            RedisTemplate<String, Cart> cartRedisTemplate,
+            ObjectMapper objectMapper,
+            CartTotalCalculator cartTotalCalculator,
+            @Value("${cart.expiration.hours}") int cartExpirationHours,
+            @Value("${cart.expiration.refresh-below-hours}") int cartExpirationRefreshBelowHours,
+            @Value("${cart.storage.hash.migrate-legacy:true}") boolean migrateLegacy,
+            @Value("${cart.redis.topology:standalone}") String redisTopology,
+            @Qualifier(RedisConfig.REPLICA_READ_CONNECTION_FACTORY) @Nullable LettuceConnectionFactory replicaReadConnectionFactory
+    ) {
+        super(cartTotalCalculator, cartExpirationHours, cartExpirationRefreshBelowHours, redisTopology);
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .addMixIn(Cart.class, CartHeaderMixin.class)
+                .addMixIn(CartItem.class, CartItemSnapshotMixin.class);
+        this.mutationScript = RedisScript.of(new ClassPathResource("scripts/cart-mutate.lua"), List.class);
+        this.migrationScript = RedisScript.of(new ClassPathResource("scripts/cart-migrate.lua"), Long.class);
+        this.cartExpirationSeconds = TimeUnit.HOURS.toSeconds(cartExpirationHours);
+        if (migrateLegacy && cluster) {
+            log.warn("cart.storage.hash.migrate-legacy is ignored in a Redis Cluster; carts in the value layout are not migrated");
+        }
+        this.legacyRepository = migrateLegacy && !cluster
+                ? new RedisValueCartRepository(
+                        cartRedisTemplate, cartTotalCalculator, cartExpirationHours, cartExpirationRefreshBelowHours,
+                        redisTopology, null)
+                : null;
+        this.replicaTemplate = replicaReadConnectionFactory != null
+                ? new StringRedisTemplate(replicaReadConnectionFactory)
+                : null;
+    }
+
+    @Override
+    public Optional<Cart> findById(String cartId) {
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(CART_KEY_PREFIX + cartId);
+        if (fields.isEmpty()) {
+            return migrateLegacyCart(cartId);
+        }
+        return Optional.ofNullable(readCart(cartId, fields));
+    }
+
+    @Override
+    public Optional<Cart> findByIdFromReplica(String cartId) {
+        if (replicaTemplate == null) {
+            return findById(cartId);
+        }
+        // A cart written moments ago may not have reached the replica yet, and legacy carts are migrated on the primary
+        Map<Object, Object> fields = replicaTemplate.opsForHash().entries(CART_KEY_PREFIX + cartId);
+        return fields.isEmpty() ? findById(cartId) : Optional.ofNullable(readCart(cartId, fields));
+    }
+
+    @Override
+    public Optional<Long> findVersion(String cartId) {
+        Object version = stringRedisTemplate.opsForHash().get(CART_KEY_PREFIX + cartId, VERSION_FIELD);
+        if (version == null) {
+            // A cart still in the value layout is migrated and gets its first version
+            return migrateLegacyCart(cartId).map(Cart::getVersion);
+        }
+        return Optional.of(Long.valueOf((String) version));
+    }
+
+    @Override
+    public Cart create(String cartId) {
+        return applyMutations(cartId, Collections.emptyList(), null);
+    }
+
+    @Override
+    public Cart applyMutations(String cartId, List<CartMutation> mutations, Long expectedVersion) {
+        List<String> args = mutationArgs(cartId, mutations, expectedVersion);
+        List<String> keys = mutationKeys(cartId);
+        if (legacyRepository != null) {
+            // The script checks for a value-layout cart itself, so writes to migrated carts pay nothing extra
+            keys = new ArrayList<>(keys);
+            keys.add(legacyRepository.cartKey(cartId));
+        }
+        List<?> result = stringRedisTemplate.execute(mutationScript, keys, args.toArray());
+        for (int attempt = 1; result.size() == 1 && LEGACY_RESULT.equals(result.get(0)); attempt++) {
+            migrateLegacyCart(cartId);
+            // The last attempt leaves out the value-layout key, so a cart that cannot be migrated is replaced
+            result = stringRedisTemplate.execute(mutationScript,
+                    attempt < MIGRATION_ATTEMPTS ? keys : mutationKeys(cartId), args.toArray());
+        }
+        Cart cart = readMutationResult(cartId, result, expectedVersion);
+        if (!scriptsTrackActivity()) {
+            stringRedisTemplate.opsForZSet().add(ACTIVITY_KEY, cartId, activityScore(args));
+        }
+        return cart;
+    }
+
+    @Override
+    public void deleteById(String cartId) {
+        stringRedisTemplate.delete(CART_KEY_PREFIX + cartId);
+        stringRedisTemplate.opsForZSet().remove(ACTIVITY_KEY, cartId);
+        if (legacyRepository != null) {
+            legacyRepository.deleteStoredValue(cartId);
+        }
+    }
+
+    // The script protocol below is shared with ReactiveRedisHashCartRepository
+
+    RedisScript<List> getMutationScript() {
+        return mutationScript;
+    }
+
+    List<String> mutationKeys(String cartId) {
+        return scriptsTrackActivity()
+                ? Arrays.asList(CART_KEY_PREFIX + cartId, ACTIVITY_KEY)
+                : Collections.singletonList(CART_KEY_PREFIX + cartId);
+    }
+
+    // The write time passed to the script, for recording the write outside of it
+    double activityScore(List<String> mutationArgs) {
+        return Double.parseDouble(mutationArgs.get(6));
+    }
+
+    List<String> mutationArgs(String cartId, List<CartMutation> mutations, Long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        Cart newCart = newCart(cartId, now);
+        List<String> args = new ArrayList<>(8 + mutations.size() * 4);
+        args.add(FORMATTER.format(now));
+        args.add(writeJson(newCart));
+        args.add(String.valueOf(cartExpirationSeconds));
+        args.add(String.valueOf(TimeUnit.HOURS.toSeconds(cartExpirationRefreshBelowHours)));
+        args.add(FORMATTER.format(newCart.getExpiresAt()));
+        args.add(expectedVersion != null ? String.valueOf(expectedVersion) : "");
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(cartId);
+        for (CartMutation mutation : mutations) {
+            String productId = String.valueOf(mutation.getProductId());
+            switch (mutation.getType()) {
+                case ADD:
+                    Collections.addAll(args, "add", productId, String.valueOf(mutation.getQuantity()), writeJson(mutation.getItem()));
+                    break;
+                case SET_QUANTITY:
+                    Collections.addAll(args, "set", productId, String.valueOf(mutation.getQuantity()), "");
+                    break;
+                case REMOVE:
+                    Collections.addAll(args, "remove", productId, "0", "");
+                    break;
+            }
+        }
+        return args;
+    }
+
+    Cart readMutationResult(String cartId, List<?> result, Long expectedVersion) {
+        if (result.size() == 2 && CONFLICT_RESULT.equals(result.get(0))) {
+            throw new CartVersionConflictException(cartId, expectedVersion, Long.valueOf((String) result.get(1)));
+        }
+
+        Map<Object, Object> fields = new HashMap<>();
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            fields.put(result.get(i), result.get(i + 1));
+        }
+        return readCart(cartId, fields);
+    }
+
+    private Optional<Cart> migrateLegacyCart(String cartId) {
+        if (legacyRepository == null) {
+            return Optional.empty();
+        }
+
+        Optional<Cart> legacyCart = legacyRepository.findById(cartId);
+        if (!legacyCart.isPresent()) {
+            return legacyCart;
+        }
+        Cart cart = legacyCart.get();
+        long legacyVersion = cart.getVersion() != null ? cart.getVersion() : 0L;
+        // Keeps the version the value layout had, so ETags handed out before stay valid
+        cart.setVersion(Math.max(legacyVersion, 1L));
+
+        // Only moves the cart if nobody wrote either layout since it was read; otherwise the hash wins
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(legacyVersion));
+        args.add(String.valueOf(cartExpirationSeconds));
+        hashFields(cart).forEach((name, value) -> Collections.addAll(args, name, value));
+        Long migrated = stringRedisTemplate.execute(migrationScript,
+                Arrays.asList(CART_KEY_PREFIX + cartId, legacyRepository.cartKey(cartId), legacyRepository.versionKey(cartId)),
+                args.toArray());
+        if (migrated != null && migrated == 1) {
+            log.info("Migrated cart {} to hash storage", cartId);
+            return legacyCart;
+        }
+        // Either the hash was written meanwhile, or the value layout was and stays in place for now
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(CART_KEY_PREFIX + cartId);
+        return fields.isEmpty() ? legacyRepository.findById(cartId) : Optional.ofNullable(readCart(cartId, fields));
+    }
+
+    private Map<String, String> hashFields(Cart cart) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(HEADER_FIELD, writeJson(cart));
+        fields.put(VERSION_FIELD, String.valueOf(cart.getVersion()));
+        for (CartItem item : cart.getItems()) {
+            fields.put(ITEM_FIELD_PREFIX + item.getProductId(), writeJson(item));
+            fields.put(QUANTITY_FIELD_PREFIX + item.getProductId(), String.valueOf(item.getQuantity()));
+        }
+        return fields;
+    }
+
+    Cart readCart(String cartId, Map<Object, Object> fields) {
+        Object header = fields.get(HEADER_FIELD);
+        if (header == null) {
+            log.error("Cart hash {} has no header field", cartId);
+            return null;
+        }
+
+        try {
+            Cart cart = objectMapper.readValue((String) header, Cart.class);
+            List<CartItem> items = new ArrayList<>();
+            for (Map.Entry<Object, Object> field : fields.entrySet()) {
+                String name = (String) field.getKey();
+                if (name.startsWith(ITEM_FIELD_PREFIX)) {
+                    CartItem item = objectMapper.readValue((String) field.getValue(), CartItem.class);
+                    Object quantity = fields.get(QUANTITY_FIELD_PREFIX + item.getProductId());
+                    item.setQuantity(quantity != null ? Integer.valueOf((String) quantity) : 0);
+                    items.add(item);
+                }
+            }
+            items.sort(Comparator.comparing(CartItem::getProductId));
+            cart.setItems(items);
+            Object version = fields.get(VERSION_FIELD);
+            cart.setVersion(version != null ? Long.valueOf((String) version) : 0L);
+            cartTotalCalculator.updateTotal(cart);
+            return cart;
+        } catch (JsonProcessingException e) {
+            log.error("Error reading cart hash {}: {}", cartId, e.getMessage());
+            return null;
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize cart field", e);
+        }
+    }
+
+    // The header only carries timestamps; items live in their own fields and the total is derived
+    @JsonIgnoreProperties({"items", "total"})
+    private abstract static class CartHeaderMixin {
+    }
+
+    // Quantity lives in its own field so it can change without rewriting the snapshot
+    @JsonIgnoreProperties({"quantity"})
+    private abstract static class CartItemSnapshotMixin {
+    }
+}
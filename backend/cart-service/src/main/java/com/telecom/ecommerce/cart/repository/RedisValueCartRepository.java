@@ -0,0 +1,278 @@
+package com.telecom.ecommerce.cart.repository;
+
+import com.telecom.ecommerce.cart.config.RedisConfig;
+import com.telecom.ecommerce.cart.exception.CartBusyException;
+import com.telecom.ecommerce.cart.exception.CartVersionConflictException;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores each cart as a single serialized value under {@code cart:<id>}, encoded as JSON or
+ * in the compact binary format depending on {@code cart.storage.serializer}, with its version
+ * counter under {@code cart:version:<id>}.
+ * Every write re-serializes the whole cart, and mutations are a read-modify-write guarded
+ * by the version that was read: a write that lost a race is rejected when the caller
+ * passed the version it expects, and otherwise read and applied again a few times.
+ * Use the hash mode for atomic mutations.
+ * In a Redis Cluster both keys carry the cart id as hash tag ({@code cart:{<id>}}) so they stay in one slot.
+ */
+@Repository
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "value", matchIfMissing = true)
+public class RedisValueCartRepository extends AbstractCartRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisValueCartRepository.class);
+    static final String CART_KEY_PREFIX = "cart:";
+    static final String VERSION_KEY_PREFIX = "cart:version:";
+    // Attempts a mutation without an expected version makes before giving up on a busy cart
+    private static final int MUTATION_ATTEMPTS = 5;
+
+    private final RedisTemplate<String, Cart> redisTemplate;
+    private final RedisScript<Long> saveScript;
+    private final RedisScript<Long> discardScript;
+    // Null unless cart.redis.read-from-replicas is on
+    private final RedisTemplate<String, Cart> replicaTemplate;
+
+    @Autowired
+    public RedisValueCartRepository(
+            RedisTemplate<String, Cart> cartRedisTemplate,
+            CartTotalCalculator cartTotalCalculator,
+            @Value("${cart.expiration.hours}") int cartExpirationHours,
+            @Value("${cart.expiration.refresh-below-hours}") int cartExpirationRefreshBelowHours,
+            @Value("${cart.redis.topology:standalone}") String redisTopology,
+            @Qualifier(RedisConfig.REPLICA_READ_CONNECTION_FACTORY) @Nullable LettuceConnectionFactory replicaReadConnectionFactory
+    ) {
+        super(cartTotalCalculator, cartExpirationHours, cartExpirationRefreshBelowHours, redisTopology);
+        this.redisTemplate = cartRedisTemplate;
+        this.saveScript = RedisScript.of(new ClassPathResource("scripts/cart-save.lua"), Long.class);
+        this.discardScript = RedisScript.of(new ClassPathResource("scripts/cart-discard.lua"), Long.class);
+        this.replicaTemplate = replicaReadConnectionFactory != null ? replicaTemplate(replicaReadConnectionFactory) : null;
+    }
+
+    @Override
+    public Optional<Cart> findById(String cartId) {
+        return read(redisTemplate, cartId);
+    }
+
+    @Override
+    public Optional<Cart> findByIdFromReplica(String cartId) {
+        if (replicaTemplate == null) {
+            return findById(cartId);
+        }
+        // A cart written moments ago may not have reached the replica yet
+        Optional<Cart> cart = read(replicaTemplate, cartId);
+        return cart.isPresent() ? cart : findById(cartId);
+    }
+
+    private Optional<Cart> read(RedisTemplate<String, Cart> template, String cartId) {
+        // Cart and version come back from one MGET
+        byte[] cartKey = rawKey(cartKey(cartId));
+        byte[] versionKey = rawKey(versionKey(cartId));
+        List<byte[]> values = template.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(cartKey, versionKey));
+        if (values == null || values.get(0) == null) {
+            return Optional.empty();
+        }
+
+        long version = parseVersion(values.get(1));
+        Cart cart;
+        try {
+            cart = valueSerializer().deserialize(values.get(0));
+        } catch (SerializationException e) {
+            discardUnreadable(cartId, version, e);
+            return Optional.empty();
+        }
+        cart.setVersion(version);
+        // Discounts may have started or ended since the cart was saved
+        cartTotalCalculator.updateTotal(cart);
+        return Optional.of(cart);
+    }
+
+    // An unreadable cart is lost either way. Left in place, every write would be built on an empty cart
+    // that fails the version check against it until the TTL runs out, so it is deleted. The delete goes to
+    // the primary and only happens while the version is unchanged, so a cart written since is kept
+    private void discardUnreadable(String cartId, long version, SerializationException e) {
+        Long discarded = redisTemplate.execute(
+                discardScript,
+                RedisSerializer.string(),
+                new GenericToStringSerializer<>(Long.class),
+                Arrays.asList(cartKey(cartId), versionKey(cartId)),
+                String.valueOf(version));
+        log.error("Unreadable cart {} at version {}, {}: {}", cartId, version,
+                discarded != null && discarded == 1 ? "discarded" : "already rewritten", e.getMessage());
+    }
+
+    @Override
+    public Optional<Long> findVersion(String cartId) {
+        byte[] rawKey = rawKey(versionKey(cartId));
+        byte[] version = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        return version != null ? Optional.of(parseVersion(version)) : Optional.empty();
+    }
+
+    // Only writes when there is still no cart; a cart saved since the caller looked for one is returned instead
+    @Override
+    public Cart create(String cartId) {
+        for (int attempt = 1; attempt <= MUTATION_ATTEMPTS; attempt++) {
+            Cart cart = newCart(cartId, LocalDateTime.now());
+            if (save(cart, true, 0L)) {
+                return cart;
+            }
+            Optional<Cart> existingCart = findById(cartId);
+            if (existingCart.isPresent()) {
+                return existingCart.get();
+            }
+        }
+        throw new CartBusyException(cartId, MUTATION_ATTEMPTS);
+    }
+
+    @Override
+    public Cart applyMutations(String cartId, List<CartMutation> mutations, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            Optional<Cart> existingCart = findById(cartId);
+            Cart cart = existingCart.orElseGet(() -> newCart(cartId, LocalDateTime.now()));
+            long currentVersion = cart.getVersion() != null ? cart.getVersion() : 0L;
+            if (expectedVersion != null && expectedVersion != currentVersion) {
+                throw new CartVersionConflictException(cartId, expectedVersion, currentVersion);
+            }
+
+            for (CartMutation mutation : mutations) {
+                switch (mutation.getType()) {
+                    case ADD:
+                        // Increments the quantity if the product is already in the cart. A copy, so a retry
+                        // starts from the item as it was passed in
+                        cart.addItem(mutation.getItem().copy());
+                        break;
+                    case SET_QUANTITY:
+                        cart.findItem(mutation.getProductId()).ifPresent(item -> item.setQuantity(mutation.getQuantity()));
+                        break;
+                    case REMOVE:
+                        cart.removeItem(mutation.getProductId());
+                        break;
+                }
+            }
+
+            // The version read above always guards the write, so a concurrent change in between is never overwritten
+            if (saveChanges(cart, !existingCart.isPresent(), currentVersion)) {
+                return cart;
+            }
+            if (expectedVersion != null) {
+                throw new CartVersionConflictException(cartId, expectedVersion, findVersion(cartId).orElse(0L));
+            }
+            // Without If-Match the client did not ask for a particular version, so the mutations go on top of the new one
+            if (attempt == MUTATION_ATTEMPTS) {
+                throw new CartBusyException(cartId, MUTATION_ATTEMPTS);
+            }
+        }
+    }
+
+    @Override
+    public void deleteById(String cartId) {
+        byte[] rawCartId = cartId.getBytes(StandardCharsets.UTF_8);
+        byte[] rawActivityKey = rawKey(ACTIVITY_KEY);
+        deleteStoredValue(cartId);
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.zSetCommands().zRem(rawActivityKey, rawCartId));
+    }
+
+    // Removes the cart and its version but keeps its activity entry, for carts moved to another layout
+    void deleteStoredValue(String cartId) {
+        redisTemplate.delete(Arrays.asList(cartKey(cartId), versionKey(cartId)));
+    }
+
+    // Writes value, TTL and version in one script call (scripts/cart-save.lua). An existing cart keeps
+    // its TTL (KEEPTTL) unless it is close enough to expiring to need an extension. Every write names the
+    // version it was based on (0 for a new cart); returns false without writing when the stored version
+    // no longer matches it.
+    private boolean save(Cart cart, boolean newCart, long expectedVersion) {
+        LocalDateTime now = LocalDateTime.now();
+        String ttlSeconds = "";
+        if (newCart || shouldRefreshExpiry(cart, now)) {
+            cart.setExpiresAt(now.plusHours(cartExpirationHours));
+            ttlSeconds = String.valueOf(TimeUnit.HOURS.toSeconds(cartExpirationHours));
+        }
+
+        List<String> keys = scriptsTrackActivity()
+                ? Arrays.asList(cartKey(cart.getId()), versionKey(cart.getId()), ACTIVITY_KEY)
+                : Arrays.asList(cartKey(cart.getId()), versionKey(cart.getId()));
+        long writtenAt = System.currentTimeMillis();
+        byte[] rawCartId = cart.getId().getBytes(StandardCharsets.UTF_8);
+        Long version = redisTemplate.execute(
+                saveScript,
+                RedisSerializer.byteArray(),
+                new GenericToStringSerializer<>(Long.class),
+                keys,
+                valueSerializer().serialize(cart),
+                ttlSeconds.getBytes(StandardCharsets.UTF_8),
+                String.valueOf(expectedVersion).getBytes(StandardCharsets.UTF_8),
+                String.valueOf(writtenAt).getBytes(StandardCharsets.UTF_8),
+                rawCartId);
+        if (version != null && version < 0) {
+            return false;
+        }
+        if (!scriptsTrackActivity()) {
+            byte[] rawActivityKey = rawKey(ACTIVITY_KEY);
+            redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                    connection.zSetCommands().zAdd(rawActivityKey, writtenAt, rawCartId));
+        }
+        cart.setVersion(version);
+        return true;
+    }
+
+    private boolean saveChanges(Cart cart, boolean newCart, long expectedVersion) {
+        cartTotalCalculator.updateTotal(cart);
+        cart.setUpdatedAt(LocalDateTime.now());
+        return save(cart, newCart, expectedVersion);
+    }
+
+    String cartKey(String cartId) {
+        return CART_KEY_PREFIX + keyTag(cartId);
+    }
+
+    String versionKey(String cartId) {
+        return VERSION_KEY_PREFIX + keyTag(cartId);
+    }
+
+    // Only runs raw commands, so it needs no serializers of its own
+    private static RedisTemplate<String, Cart> replicaTemplate(LettuceConnectionFactory connectionFactory) {
+        RedisTemplate<String, Cart> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Cart> valueSerializer() {
+        return (RedisSerializer<Cart>) redisTemplate.getValueSerializer();
+    }
+
+    // Carts written before versioning have no version key yet
+    private static long parseVersion(byte[] version) {
+        return version != null ? Long.parseLong(new String(version, StandardCharsets.UTF_8)) : 0L;
+    }
+}
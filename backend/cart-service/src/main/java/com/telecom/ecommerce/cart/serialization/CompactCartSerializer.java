@@ -0,0 +1,224 @@
+package com.telecom.ecommerce.cart.serialization;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary encoding of a {@link Cart}: a magic byte, a schema version and a flags byte, followed by
+ * the fields written in a fixed order without names or type metadata. Bodies larger than the
+ * compression threshold are deflated.
+ * Values that do not start with the magic byte are handed to the fallback serializer, so carts
+ * written as JSON before the switch stay readable until they are next saved.
+ * Version 2 stores strings as length-prefixed UTF-8; version 1, which used modified UTF-8 limited
+ * to 64 KB per string, is still read.
+ */
+public class CompactCartSerializer implements RedisSerializer<Cart> {
+
+    // JSON payloads always start with '{', so this cannot be mistaken for one
+    private static final byte MAGIC = (byte) 0xCA;
+    private static final byte VERSION = 2;
+    private static final byte MODIFIED_UTF8_VERSION = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final int HEADER_LENGTH = 3;
+
+    private final RedisSerializer<Cart> fallbackSerializer;
+    private final int compressionThresholdBytes;
+
+    public CompactCartSerializer(RedisSerializer<Cart> fallbackSerializer, int compressionThresholdBytes) {
+        this.fallbackSerializer = fallbackSerializer;
+        this.compressionThresholdBytes = compressionThresholdBytes;
+    }
+
+    @Override
+    public byte[] serialize(Cart cart) throws SerializationException {
+        if (cart == null) {
+            return null;
+        }
+
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            writeCart(new DataOutputStream(body), cart);
+
+            boolean deflate = body.size() > compressionThresholdBytes;
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_LENGTH + body.size());
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(deflate ? FLAG_DEFLATED : 0);
+            if (deflate) {
+                // The native zlib memory behind a Deflater is only freed by end()
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater);
+                    body.writeTo(deflated);
+                    deflated.finish();
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                body.writeTo(out);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cart " + cart.getId(), e);
+        }
+    }
+
+    @Override
+    public Cart deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallbackSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH || (bytes[1] != VERSION && bytes[1] != MODIFIED_UTF8_VERSION)) {
+            throw new SerializationException("Unsupported compact cart format version " + (bytes.length > 1 ? bytes[1] : -1));
+        }
+
+        InputStream body = new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        // Closing the stream also ends the Inflater it creates
+        try (DataInputStream in = new DataInputStream((bytes[2] & FLAG_DEFLATED) != 0 ? new InflaterInputStream(body) : body)) {
+            return readCart(in, bytes[1] == MODIFIED_UTF8_VERSION);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read compact cart", e);
+        }
+    }
+
+    private void writeCart(DataOutputStream out, Cart cart) throws IOException {
+        writeString(out, cart.getId());
+        writeDecimal(out, cart.getTotal());
+        writeDateTime(out, cart.getCreatedAt());
+        writeDateTime(out, cart.getUpdatedAt());
+        writeDateTime(out, cart.getExpiresAt());
+
+        List<CartItem> items = cart.getItems() != null ? cart.getItems() : new ArrayList<>();
+        out.writeInt(items.size());
+        for (CartItem item : items) {
+            writeLong(out, item.getProductId());
+            writeString(out, item.getName());
+            writeString(out, item.getDescription());
+            writeDecimal(out, item.getPrice());
+            writeString(out, item.getType());
+            writeString(out, item.getImageUrl());
+            writeString(out, item.getDataAllowance());
+            writeString(out, item.getBrand());
+            writeInteger(out, item.getQuantity());
+            writeInteger(out, item.getDiscountPercentage());
+            writeString(out, item.getDiscountExpiry());
+        }
+        out.flush();
+    }
+
+    private Cart readCart(DataInputStream in, boolean modifiedUtf8) throws IOException {
+        Cart cart = new Cart();
+        cart.setId(readString(in, modifiedUtf8));
+        cart.setTotal(readDecimal(in, modifiedUtf8));
+        cart.setCreatedAt(readDateTime(in));
+        cart.setUpdatedAt(readDateTime(in));
+        cart.setExpiresAt(readDateTime(in));
+
+        int itemCount = in.readInt();
+        List<CartItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            CartItem item = new CartItem();
+            item.setProductId(readLong(in));
+            item.setName(readString(in, modifiedUtf8));
+            item.setDescription(readString(in, modifiedUtf8));
+            item.setPrice(readDecimal(in, modifiedUtf8));
+            item.setType(readString(in, modifiedUtf8));
+            item.setImageUrl(readString(in, modifiedUtf8));
+            item.setDataAllowance(readString(in, modifiedUtf8));
+            item.setBrand(readString(in, modifiedUtf8));
+            item.setQuantity(readInteger(in));
+            item.setDiscountPercentage(readInteger(in));
+            item.setDiscountExpiry(readString(in, modifiedUtf8));
+            items.add(item);
+        }
+        cart.setItems(items);
+        return cart;
+    }
+
+    // Every nullable field is preceded by a presence flag
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    private static String readString(DataInputStream in, boolean modifiedUtf8) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        if (modifiedUtf8) {
+            return in.readUTF();
+        }
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in, boolean modifiedUtf8) throws IOException {
+        String value = readString(in, modifiedUtf8);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.telecom.ecommerce.cart.service;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@ConditionalOnProperty(name = "cart.sweeper.enabled", havingValue = "true")
+public class AbandonedCartEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartEventPublisher.class);
+    private static final String TOPIC = "abandoned-cart";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+
+    // The cart was left alone for longer than the abandonment threshold
+    public static final String CART_ABANDONED = "CART_ABANDONED";
+    // The cart was deleted early to bring Redis back under its memory budget
+    public static final String CART_EVICTED = "CART_EVICTED";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long sendTimeoutMs;
+
+    @Autowired
+    public AbandonedCartEventPublisher(
+            KafkaTemplate<String, Object> kafkaTemplate,
+            @Value("${cart.sweeper.send-timeout-ms:10000}") long sendTimeoutMs
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    // Sends one event per cart, keyed by cart id, without waiting in between, then waits at most the
+    // send timeout for the whole batch to be acknowledged. Returns false if any of them could not be sent.
+    public boolean publishBatch(String eventType, List<Cart> carts) {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[carts.size()];
+        try {
+            for (int i = 0; i < carts.size(); i++) {
+                Cart cart = carts.get(i);
+                sends[i] = kafkaTemplate.send(TOPIC, cart.getId(), createCartEvent(cart, eventType)).completable();
+            }
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            log.info("Published {} {} events", carts.size(), eventType);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Error publishing {} events to Kafka: {}", eventType, e.getMessage());
+            return false;
+        }
+    }
+
+    private Map<String, Object> createCartEvent(Cart cart, String eventType) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventType", eventType);
+        event.put("cartId", cart.getId());
+        event.put("items", cart.getItems());
+        event.put("total", cart.getTotal());
+        event.put("updatedAt", cart.getUpdatedAt() != null ? cart.getUpdatedAt().format(FORMATTER) : null);
+        event.put("timestamp", System.currentTimeMillis());
+        return event;
+    }
+}
@@ -0,0 +1,138 @@
+package com.telecom.ecommerce.cart.service;
+
+import com.telecom.ecommerce.cart.dto.CartItemOperation;
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import com.telecom.ecommerce.cart.repository.CartMutation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps between requests, products, carts and responses. Shared by the servlet and reactive
+ * services, which differ only in how they load products and carts.
+ */
+@Component
+public class CartMapper {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+
+    private final boolean slimItems;
+
+    @Autowired
+    public CartMapper(@Value("${cart.storage.slim-items:false}") boolean slimItems) {
+        this.slimItems = slimItems;
+    }
+
+    public Set<Long> addedProductIds(List<CartItemOperation> operations) {
+        return operations.stream()
+                .filter(operation -> operation.getOp() == CartItemOperation.Type.ADD)
+                .map(CartItemOperation::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    public CartMutation mapToMutation(CartItemOperation operation, Map<Long, ProductDto> products) {
+        Long productId = operation.getProductId();
+        Integer quantity = operation.getQuantity();
+        switch (operation.getOp()) {
+            case ADD:
+                if (quantity == null || quantity < 1) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity must be at least 1 to add product " + productId);
+                }
+                ProductDto product = products.get(productId);
+                if (product == null) {
+                    throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + productId);
+                }
+                return CartMutation.add(mapToCartItem(product, quantity));
+            case UPDATE:
+                if (quantity == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantity is required to update product " + productId);
+                }
+                return quantity > 0 ? CartMutation.setQuantity(productId, quantity) : CartMutation.remove(productId);
+            default:
+                return CartMutation.remove(productId);
+        }
+    }
+
+    public CartItem mapToCartItem(ProductDto product, Integer quantity) {
+        // Manual builder implementation
+        CartItem item = new CartItem();
+        item.setProductId(product.getId());
+        item.setPrice(product.getPrice());
+        item.setQuantity(quantity);
+        // Slim items keep only the id, quantity and price snapshot; the rest is filled in on read
+        if (!slimItems) {
+            copyDisplayFields(product, item);
+        }
+        return item;
+    }
+
+    // Products whose display fields have to be loaded before the cart is returned
+    public Set<Long> slimProductIds(Cart cart) {
+        return cart.getItems().stream()
+                .filter(item -> item.getName() == null)
+                .map(CartItem::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    // Stands in for a cart that has not been stored yet; it reads as version 0 so If-Match "0" still works
+    public Cart emptyCart(String cartId) {
+        // Manual builder implementation
+        Cart cart = new Cart();
+        cart.setId(cartId);
+        cart.setTotal(BigDecimal.ZERO);
+        cart.setVersion(0L);
+        return cart;
+    }
+
+    // Fills in display fields for items stored without them, leaving the stored cart untouched
+    public CartResponse mapToCartResponse(Cart cart, Map<Long, ProductDto> products) {
+        List<CartItem> items = cart.getItems().stream()
+                .map(item -> {
+                    ProductDto product = products.get(item.getProductId());
+                    if (item.getName() != null || product == null) {
+                        return item;
+                    }
+                    // Manual builder implementation
+                    CartItem hydrated = new CartItem();
+                    hydrated.setProductId(item.getProductId());
+                    hydrated.setPrice(item.getPrice());
+                    hydrated.setQuantity(item.getQuantity());
+                    hydrated.setDiscountPercentage(item.getDiscountPercentage());
+                    hydrated.setDiscountExpiry(item.getDiscountExpiry());
+                    copyDisplayFields(product, hydrated);
+                    return hydrated;
+                })
+                .collect(Collectors.toList());
+
+        // Manual builder implementation
+        CartResponse response = new CartResponse();
+        response.setCartId(cart.getId());
+        response.setItems(items);
+        response.setTotal(cart.getTotal());
+        // An empty cart that was never stored has no expiry yet
+        response.setExpiresAt(cart.getExpiresAt() != null ? cart.getExpiresAt().format(FORMATTER) : null);
+        response.setVersion(cart.getVersion());
+        return response;
+    }
+
+    private void copyDisplayFields(ProductDto product, CartItem item) {
+        item.setName(product.getName());
+        item.setDescription(product.getDescription());
+        item.setType(product.getType());
+        item.setImageUrl(product.getImageUrl());
+        item.setDataAllowance(product.getDataAllowance());
+        item.setBrand(product.getBrand());
+    }
+}
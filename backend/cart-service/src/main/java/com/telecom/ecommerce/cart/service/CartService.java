@@ -1,19 +1,34 @@
 package com.telecom.ecommerce.cart.service;
 
+import com.telecom.ecommerce.cart.dto.CartItemOperation;
 import com.telecom.ecommerce.cart.dto.CartResponse;
 import com.telecom.ecommerce.cart.model.Cart;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface CartService {
 
     Cart getCart(String cartId);
     
     CartResponse getCartResponse(String cartId);
+
+    // Version of the stored cart, empty if there is no cart yet
+    Optional<Long> getCartVersion(String cartId);
+
+    // Changes whenever a stored cart may read differently without being written to: live discounts
+    // and product details of slim items. Sent in the ETag next to the cart version
+    String getContentGeneration();
+
+    // Mutations take the version the client last saw (If-Match), or null to write unconditionally
+    CartResponse addToCart(String cartId, Long productId, Integer quantity, Long expectedVersion);
     
-    CartResponse addToCart(String cartId, Long productId, Integer quantity);
-    
-    CartResponse updateCartItem(String cartId, Long productId, Integer quantity);
+    CartResponse updateCartItem(String cartId, Long productId, Integer quantity, Long expectedVersion);
     
-    CartResponse removeFromCart(String cartId, Long productId);
+    CartResponse removeFromCart(String cartId, Long productId, Long expectedVersion);
+
+    // Applies all operations in one cart write, with one product lookup for the added products
+    CartResponse applyOperations(String cartId, List<CartItemOperation> operations, Long expectedVersion);
     
     void deleteCart(String cartId);
 } 
\ No newline at end of file
@@ -1,82 +1,86 @@
 package com.telecom.ecommerce.cart.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.telecom.ecommerce.cart.client.ProductServiceClient;
+import com.telecom.ecommerce.cart.cache.CartNearCache;
+import com.telecom.ecommerce.cart.cache.DiscountCache;
+import com.telecom.ecommerce.cart.cache.ProductCache;
+import com.telecom.ecommerce.cart.dto.CartItemOperation;
 import com.telecom.ecommerce.cart.dto.CartResponse;
 import com.telecom.ecommerce.cart.dto.ProductDto;
 import com.telecom.ecommerce.cart.model.Cart;
-import com.telecom.ecommerce.cart.model.CartItem;
+import com.telecom.ecommerce.cart.pricing.CartTotalCalculator;
+import com.telecom.ecommerce.cart.repository.CartMutation;
+import com.telecom.ecommerce.cart.repository.CartRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
 @Service
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CartServiceImpl implements CartService {
 
     private static final Logger log = LoggerFactory.getLogger(CartServiceImpl.class);
-    private final RedisTemplate<String, Object> redisTemplate;
-    private final ProductServiceClient productServiceClient;
-    private final ObjectMapper objectMapper;
-    
-    private static final String CART_KEY_PREFIX = "cart:";
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
-    
-    @Value("${cart.expiration.hours}")
-    private int cartExpirationHours;
+    private final CartRepository cartRepository;
+    private final CartNearCache cartNearCache;
+    private final ProductCache productCache;
+    private final DiscountCache discountCache;
+    private final CartTotalCalculator cartTotalCalculator;
+    private final CartMapper cartMapper;
+    private final boolean lazyCreate;
     
     @Autowired
-    public CartServiceImpl(RedisTemplate<String, Object> redisTemplate, ProductServiceClient productServiceClient, ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
-        this.productServiceClient = productServiceClient;
-        this.objectMapper = objectMapper;
+    public CartServiceImpl(
+            CartRepository cartRepository,
+            CartNearCache cartNearCache,
+            ProductCache productCache,
+            DiscountCache discountCache,
+            CartTotalCalculator cartTotalCalculator,
+            CartMapper cartMapper,
+            @Value("${cart.storage.lazy-create:false}") boolean lazyCreate
+    ) {
+        this.cartRepository = cartRepository;
+        this.cartNearCache = cartNearCache;
+        this.productCache = productCache;
+        this.discountCache = discountCache;
+        this.cartTotalCalculator = cartTotalCalculator;
+        this.cartMapper = cartMapper;
+        this.lazyCreate = lazyCreate;
     }
 
     @Override
     public Cart getCart(String cartId) {
-        String key = CART_KEY_PREFIX + cartId;
-        Object rawCart = redisTemplate.opsForValue().get(key);
-        
-        Cart cart = null;
-        if (rawCart != null) {
-            if (rawCart instanceof Cart) {
-                cart = (Cart) rawCart;
-            } else if (rawCart instanceof LinkedHashMap) {
-                // Convert LinkedHashMap to Cart
-                try {
-                    // Convert the map to JSON and then to Cart object
-                    cart = objectMapper.convertValue(rawCart, Cart.class);
-                } catch (Exception e) {
-                    log.error("Error converting LinkedHashMap to Cart: {}", e.getMessage());
-                    cart = null;
-                }
-            } else {
-                log.error("Unknown object type returned from Redis: {}", rawCart.getClass().getName());
-            }
+        Cart cachedCart = cartNearCache.get(cartId);
+        if (cachedCart != null) {
+            // Discounts may have ended while the cart was cached; this prices a copy, not the cached cart
+            cartTotalCalculator.updateTotal(cachedCart);
+            return cachedCart;
         }
-        
-        if (cart == null) {
-            cart = createNewCart(cartId);
-            redisTemplate.opsForValue().set(key, cart);
-            redisTemplate.expire(key, cartExpirationHours, TimeUnit.HOURS);
+
+        long invalidationStamp = cartNearCache.invalidationStamp(cartId);
+        // A replica may still return a version older than one this instance just wrote and invalidated,
+        // so carts headed for the near-cache are read from the primary
+        Optional<Cart> cart = cartNearCache.isEnabled()
+                ? cartRepository.findById(cartId)
+                : cartRepository.findByIdFromReplica(cartId);
+        if (!cart.isPresent() && lazyCreate) {
+            // Nothing is written until the first mutation, so visitors who never add anything cost no writes
+            return cartMapper.emptyCart(cartId);
         }
-        
-        return cart;
+        Cart storedCart = cart.orElseGet(() -> cartRepository.create(cartId));
+        cartNearCache.put(storedCart, invalidationStamp);
+        return storedCart;
     }
 
     @Override
@@ -86,145 +90,84 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    public CartResponse addToCart(String cartId, Long productId, Integer quantity) {
-        Cart cart = getCart(cartId);
-        
-        // Get product details from product service
-        ProductDto product = productServiceClient.getProductById(productId);
-        
-        // Check if the product already exists in cart
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            // Update quantity
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-        } else {
-            // Add new item to cart
-            CartItem newItem = mapToCartItem(product, quantity);
-            cart.getItems().add(newItem);
+    public Optional<Long> getCartVersion(String cartId) {
+        Cart cachedCart = cartNearCache.get(cartId);
+        if (cachedCart != null) {
+            return Optional.ofNullable(cachedCart.getVersion());
         }
+        Optional<Long> version = cartRepository.findVersion(cartId);
+        return version.isPresent() || !lazyCreate ? version : Optional.of(0L);
+    }
+
+    @Override
+    public String getContentGeneration() {
+        return Long.toHexString(discountCache.generation()) + "-" + Long.toHexString(productCache.generation());
+    }
+
+    @Override
+    public CartResponse addToCart(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        // Get product details from the product cache, which calls product service on a miss
+        ProductDto product = productCache.get(productId);
         
-        // Update cart total
-        updateCartTotal(cart);
-        
-        // Update cart in Redis
-        saveCart(cart);
+        // Adds the item or increments its quantity if it is already in the cart
+        Cart cart = cartRepository.addItem(cartId, cartMapper.mapToCartItem(product, quantity), expectedVersion);
+        cartNearCache.invalidate(cartId);
         
         return mapToCartResponse(cart);
     }
 
     @Override
-    public CartResponse updateCartItem(String cartId, Long productId, Integer quantity) {
-        Cart cart = getCart(cartId);
-        
+    public CartResponse updateCartItem(String cartId, Long productId, Integer quantity, Long expectedVersion) {
         if (quantity <= 0) {
-            return removeFromCart(cartId, productId);
+            return removeFromCart(cartId, productId, expectedVersion);
         }
         
-        // Find and update the item
-        cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .findFirst()
-                .ifPresent(item -> item.setQuantity(quantity));
-        
-        // Update cart total
-        updateCartTotal(cart);
-        
-        // Update cart in Redis
-        saveCart(cart);
-        
+        Cart cart = cartRepository.updateItemQuantity(cartId, productId, quantity, expectedVersion);
+        cartNearCache.invalidate(cartId);
         return mapToCartResponse(cart);
     }
 
     @Override
-    public CartResponse removeFromCart(String cartId, Long productId) {
-        Cart cart = getCart(cartId);
-        
-        // Remove the item
-        cart.getItems().removeIf(item -> item.getProductId().equals(productId));
-        
-        // Update cart total
-        updateCartTotal(cart);
-        
-        // Update cart in Redis
-        saveCart(cart);
-        
+    public CartResponse removeFromCart(String cartId, Long productId, Long expectedVersion) {
+        Cart cart = cartRepository.removeItem(cartId, productId, expectedVersion);
+        cartNearCache.invalidate(cartId);
         return mapToCartResponse(cart);
     }
 
     @Override
-    public void deleteCart(String cartId) {
-        String key = CART_KEY_PREFIX + cartId;
-        redisTemplate.delete(key);
-    }
-    
-    private Cart createNewCart(String cartId) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime expiry = now.plusHours(cartExpirationHours);
-        
-        // Manual builder implementation
-        Cart cart = new Cart();
-        cart.setId(cartId);
-        cart.setTotal(BigDecimal.ZERO);
-        cart.setCreatedAt(now);
-        cart.setUpdatedAt(now);
-        cart.setExpiresAt(expiry);
-        return cart;
-    }
-    
-    private void updateCartTotal(Cart cart) {
-        BigDecimal total = cart.getItems().stream()
-                .map(item -> {
-                    BigDecimal price = item.getPrice();
-                    // Apply discount if available
-                    if (item.getDiscountPercentage() != null && item.getDiscountPercentage() > 0) {
-                        BigDecimal discount = price.multiply(BigDecimal.valueOf(item.getDiscountPercentage() / 100.0));
-                        price = price.subtract(discount);
-                    }
-                    return price.multiply(BigDecimal.valueOf(item.getQuantity()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        cart.setTotal(total);
-        cart.setUpdatedAt(LocalDateTime.now());
-    }
-    
-    private void saveCart(Cart cart) {
-        String key = CART_KEY_PREFIX + cart.getId();
-        redisTemplate.opsForValue().set(key, cart);
-        redisTemplate.expire(key, cartExpirationHours, TimeUnit.HOURS);
+    public CartResponse applyOperations(String cartId, List<CartItemOperation> operations, Long expectedVersion) {
+        Set<Long> addedProductIds = cartMapper.addedProductIds(operations);
+        Map<Long, ProductDto> products = addedProductIds.isEmpty()
+                ? Collections.emptyMap()
+                : productCache.getAll(addedProductIds);
+
+        List<CartMutation> mutations = new ArrayList<>(operations.size());
+        for (CartItemOperation operation : operations) {
+            mutations.add(cartMapper.mapToMutation(operation, products));
+        }
+
+        Cart cart = cartRepository.applyMutations(cartId, mutations, expectedVersion);
+        cartNearCache.invalidate(cartId);
+        return mapToCartResponse(cart);
     }
-    
-    private CartItem mapToCartItem(ProductDto product, Integer quantity) {
-        // Manual builder implementation
-        CartItem item = new CartItem();
-        item.setProductId(product.getId());
-        item.setName(product.getName());
-        item.setDescription(product.getDescription());
-        item.setPrice(product.getPrice());
-        item.setType(product.getType());
-        item.setImageUrl(product.getImageUrl());
-        item.setDataAllowance(product.getDataAllowance());
-        item.setBrand(product.getBrand());
-        item.setQuantity(quantity);
-        return item;
+
+    @Override
+    public void deleteCart(String cartId) {
+        cartRepository.deleteById(cartId);
+        cartNearCache.invalidate(cartId);
     }
     
     private CartResponse mapToCartResponse(Cart cart) {
-        // Manual builder implementation
-        CartResponse response = new CartResponse();
-        response.setCartId(cart.getId());
-        response.setItems(cart.getItems());
-        response.setTotal(cart.getTotal());
-        response.setExpiresAt(cart.getExpiresAt().format(FORMATTER));
-        return response;
-    }
-    
-    // Utility method to generate a cart ID
-    public static String generateCartId() {
-        return UUID.randomUUID().toString();
+        Set<Long> slimProductIds = cartMapper.slimProductIds(cart);
+        Map<Long, ProductDto> products = Collections.emptyMap();
+        if (!slimProductIds.isEmpty()) {
+            try {
+                products = productCache.getAll(slimProductIds);
+            } catch (RuntimeException e) {
+                log.warn("Could not load product details for cart items {}: {}", slimProductIds, e.getMessage());
+            }
+        }
+        return cartMapper.mapToCartResponse(cart, products);
     }
+
 } 
\ No newline at end of file
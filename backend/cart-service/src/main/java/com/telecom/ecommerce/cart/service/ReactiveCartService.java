@@ -0,0 +1,32 @@
+package com.telecom.ecommerce.cart.service;
+
+import com.telecom.ecommerce.cart.dto.CartItemOperation;
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Non-blocking counterpart of CartService for the reactive mode
+public interface ReactiveCartService {
+
+    Mono<CartResponse> getCartResponse(String cartId);
+
+    // Version of the stored cart, empty if there is no cart yet
+    Mono<Long> getCartVersion(String cartId);
+
+    // Changes whenever a stored cart may read differently without being written to: live discounts
+    // and product details of slim items. Sent in the ETag next to the cart version
+    String getContentGeneration();
+
+    // Mutations take the version the client last saw (If-Match), or null to write unconditionally
+    Mono<CartResponse> addToCart(String cartId, Long productId, Integer quantity, Long expectedVersion);
+
+    Mono<CartResponse> updateCartItem(String cartId, Long productId, Integer quantity, Long expectedVersion);
+
+    Mono<CartResponse> removeFromCart(String cartId, Long productId, Long expectedVersion);
+
+    // Applies all operations in one cart write, with one product lookup for the added products
+    Mono<CartResponse> applyOperations(String cartId, List<CartItemOperation> operations, Long expectedVersion);
+
+    Mono<Void> deleteCart(String cartId);
+}
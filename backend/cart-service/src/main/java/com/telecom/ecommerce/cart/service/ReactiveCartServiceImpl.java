@@ -0,0 +1,141 @@
+package com.telecom.ecommerce.cart.service;
+
+import com.telecom.ecommerce.cart.cache.DiscountCache;
+import com.telecom.ecommerce.cart.cache.ReactiveProductCache;
+import com.telecom.ecommerce.cart.dto.CartItemOperation;
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import com.telecom.ecommerce.cart.dto.ProductDto;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.repository.CartMutation;
+import com.telecom.ecommerce.cart.repository.ReactiveCartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cart operations for the reactive mode. Same behaviour as {@link CartServiceImpl}, except that
+ * the near-cache is not used, since its invalidation messages are sent with blocking calls.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCartServiceImpl implements ReactiveCartService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveCartServiceImpl.class);
+    private final ReactiveCartRepository cartRepository;
+    private final ReactiveProductCache productCache;
+    private final DiscountCache discountCache;
+    private final CartMapper cartMapper;
+    private final boolean lazyCreate;
+
+    @Autowired
+    public ReactiveCartServiceImpl(
+            ReactiveCartRepository cartRepository,
+            ReactiveProductCache productCache,
+            DiscountCache discountCache,
+            CartMapper cartMapper,
+            @Value("${cart.storage.lazy-create:false}") boolean lazyCreate
+    ) {
+        this.cartRepository = cartRepository;
+        this.productCache = productCache;
+        this.discountCache = discountCache;
+        this.cartMapper = cartMapper;
+        this.lazyCreate = lazyCreate;
+    }
+
+    @Override
+    public Mono<CartResponse> getCartResponse(String cartId) {
+        return cartRepository.findByIdFromReplica(cartId)
+                // In lazy mode nothing is written until the first mutation
+                .switchIfEmpty(Mono.defer(() -> lazyCreate
+                        ? Mono.just(cartMapper.emptyCart(cartId))
+                        : cartRepository.create(cartId)))
+                .flatMap(this::mapToCartResponse);
+    }
+
+    @Override
+    public Mono<Long> getCartVersion(String cartId) {
+        return lazyCreate
+                ? cartRepository.findVersion(cartId).defaultIfEmpty(0L)
+                : cartRepository.findVersion(cartId);
+    }
+
+    @Override
+    public String getContentGeneration() {
+        return Long.toHexString(discountCache.generation()) + "-" + Long.toHexString(productCache.generation());
+    }
+
+    @Override
+    public Mono<CartResponse> addToCart(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        return productCache.get(productId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found with id: " + productId)))
+                .map(product -> CartMutation.add(cartMapper.mapToCartItem(product, quantity)))
+                .flatMap(mutation -> cartRepository.applyMutations(cartId, Collections.singletonList(mutation), expectedVersion))
+                .flatMap(this::mapToCartResponse);
+    }
+
+    @Override
+    public Mono<CartResponse> updateCartItem(String cartId, Long productId, Integer quantity, Long expectedVersion) {
+        if (quantity <= 0) {
+            return removeFromCart(cartId, productId, expectedVersion);
+        }
+        return cartRepository.applyMutations(
+                        cartId, Collections.singletonList(CartMutation.setQuantity(productId, quantity)), expectedVersion)
+                .flatMap(this::mapToCartResponse);
+    }
+
+    @Override
+    public Mono<CartResponse> removeFromCart(String cartId, Long productId, Long expectedVersion) {
+        return cartRepository.applyMutations(
+                        cartId, Collections.singletonList(CartMutation.remove(productId)), expectedVersion)
+                .flatMap(this::mapToCartResponse);
+    }
+
+    @Override
+    public Mono<CartResponse> applyOperations(String cartId, List<CartItemOperation> operations, Long expectedVersion) {
+        Set<Long> addedProductIds = cartMapper.addedProductIds(operations);
+        Mono<Map<Long, ProductDto>> products = addedProductIds.isEmpty()
+                ? Mono.just(Collections.emptyMap())
+                : productCache.getAll(addedProductIds);
+
+        return products
+                .map(productsById -> {
+                    List<CartMutation> mutations = new ArrayList<>(operations.size());
+                    for (CartItemOperation operation : operations) {
+                        mutations.add(cartMapper.mapToMutation(operation, productsById));
+                    }
+                    return mutations;
+                })
+                .flatMap(mutations -> cartRepository.applyMutations(cartId, mutations, expectedVersion))
+                .flatMap(this::mapToCartResponse);
+    }
+
+    @Override
+    public Mono<Void> deleteCart(String cartId) {
+        return cartRepository.deleteById(cartId);
+    }
+
+    private Mono<CartResponse> mapToCartResponse(Cart cart) {
+        Set<Long> slimProductIds = cartMapper.slimProductIds(cart);
+        if (slimProductIds.isEmpty()) {
+            return Mono.just(cartMapper.mapToCartResponse(cart, Collections.emptyMap()));
+        }
+        return productCache.getAll(slimProductIds)
+                .onErrorResume(e -> {
+                    log.warn("Could not load product details for cart items {}: {}", slimProductIds, e.getMessage());
+                    return Mono.just(Collections.emptyMap());
+                })
+                .map(products -> cartMapper.mapToCartResponse(cart, products));
+    }
+}
@@ -0,0 +1,300 @@
+package com.telecom.ecommerce.cart.sweeper;
+
+import com.telecom.ecommerce.cart.cache.CartNearCache;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.repository.CartRepository;
+import com.telecom.ecommerce.cart.service.AbandonedCartEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Works through the {@code cart:activity} sorted set, which every cart write scores with its write time.
+ * Each run, on one instance at a time, it:
+ * <ul>
+ *   <li>publishes a {@code CART_ABANDONED} event for every cart with items that has not been written for
+ *   {@code cart.sweeper.abandoned-after-minutes}, once per period of inactivity;</li>
+ *   <li>drops activity entries older than the cart TTL, since their carts have expired;</li>
+ *   <li>while Redis uses more than {@code cart.sweeper.memory-budget-bytes}, deletes the least recently
+ *   written carts, publishing a {@code CART_EVICTED} event for each.</li>
+ * </ul>
+ * Entries are read in windows of {@code cart.sweeper.batch-size} (ZRANGEBYSCORE ... LIMIT), at most
+ * {@code cart.sweeper.max-batches-per-run} per step, so a backlog of millions of carts is worked through
+ * over several runs without any long-running Redis command.
+ * The run holds a lock that is extended by {@code cart.sweeper.lock-timeout-ms} before every batch and
+ * released when the run ends; an instance that lost the lock stops at its next batch.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.sweeper.enabled", havingValue = "true")
+public class CartExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(CartExpirySweeper.class);
+    private static final String LOCK_KEY = "cart:sweeper:lock";
+    // Score and member of the last activity entry handled by the abandonment step
+    private static final String WATERMARK_KEY = "cart:sweeper:watermark";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CartRepository cartRepository;
+    private final CartNearCache cartNearCache;
+    private final AbandonedCartEventPublisher eventPublisher;
+    private final RedisScript<Long> lockRenewScript;
+    private final RedisScript<Long> lockReleaseScript;
+    private final Duration abandonedAfter;
+    private final Duration cartExpiration;
+    private final Duration lockTimeout;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long memoryBudgetBytes;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter abandonedCarts;
+    private final Counter evictedCarts;
+    private final Counter prunedEntries;
+
+    @Autowired
+    public CartExpirySweeper(
+            StringRedisTemplate stringRedisTemplate,
+            CartRepository cartRepository,
+            CartNearCache cartNearCache,
+            AbandonedCartEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${cart.sweeper.abandoned-after-minutes:120}") long abandonedAfterMinutes,
+            @Value("${cart.expiration.hours}") int cartExpirationHours,
+            @Value("${cart.sweeper.lock-timeout-ms:60000}") long lockTimeoutMs,
+            @Value("${cart.sweeper.batch-size:500}") int batchSize,
+            @Value("${cart.sweeper.max-batches-per-run:20}") int maxBatchesPerRun,
+            @Value("${cart.sweeper.memory-budget-bytes:0}") long memoryBudgetBytes
+    ) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cartRepository = cartRepository;
+        this.cartNearCache = cartNearCache;
+        this.eventPublisher = eventPublisher;
+        this.lockRenewScript = RedisScript.of(new ClassPathResource("scripts/lock-renew.lua"), Long.class);
+        this.lockReleaseScript = RedisScript.of(new ClassPathResource("scripts/lock-release.lua"), Long.class);
+        this.abandonedAfter = Duration.ofMinutes(abandonedAfterMinutes);
+        this.cartExpiration = Duration.ofHours(cartExpirationHours);
+        this.lockTimeout = Duration.ofMillis(lockTimeoutMs);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.abandonedCarts = sweepCounter(meterRegistry, "abandoned");
+        this.evictedCarts = sweepCounter(meterRegistry, "evicted");
+        this.prunedEntries = sweepCounter(meterRegistry, "pruned");
+    }
+
+    @Scheduled(fixedDelayString = "${cart.sweeper.interval-ms:60000}")
+    public void sweep() {
+        // One instance sweeps at a time; the lock expires on its own, so a crashed instance cannot hold it
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, lockTimeout);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        try {
+            publishAbandonedCarts();
+            pruneExpiredEntries();
+            evictOverMemoryBudget();
+        } catch (RuntimeException e) {
+            log.error("Cart sweep failed: {}", e.getMessage());
+        } finally {
+            releaseLock();
+        }
+    }
+
+    // Called before every batch; false once the lock expired, since another instance may be sweeping by now
+    private boolean renewLock() {
+        Long renewed = stringRedisTemplate.execute(lockRenewScript, Collections.singletonList(LOCK_KEY),
+                instanceId, String.valueOf(lockTimeout.toMillis()));
+        if (renewed == null || renewed == 0) {
+            log.warn("Cart sweeper lock expired during the run, stopping");
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseLock() {
+        try {
+            stringRedisTemplate.execute(lockReleaseScript, Collections.singletonList(LOCK_KEY), instanceId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release the cart sweeper lock, it expires on its own: {}", e.getMessage());
+        }
+    }
+
+    private void publishAbandonedCarts() {
+        ZSetOperations<String, String> activity = stringRedisTemplate.opsForZSet();
+        double cutoff = System.currentTimeMillis() - abandonedAfter.toMillis();
+        TypedTuple<String> watermark = readWatermark();
+        long offset = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun && renewLock(); batch++) {
+            // The lower bound is inclusive, so entries sharing the watermark score come back and are skipped here
+            Set<TypedTuple<String>> window = activity.rangeByScoreWithScores(
+                    CartRepository.ACTIVITY_KEY, watermark.getScore(), cutoff, offset, batchSize);
+            if (window == null || window.isEmpty()) {
+                return;
+            }
+
+            List<TypedTuple<String>> entries = new ArrayList<>(window.size());
+            for (TypedTuple<String> entry : window) {
+                if (isAfter(entry, watermark)) {
+                    entries.add(entry);
+                }
+            }
+            if (entries.isEmpty()) {
+                offset += window.size();
+            } else {
+                List<Cart> carts = loadCartsWithItems(entries);
+                if (!carts.isEmpty() && !eventPublisher.publishBatch(AbandonedCartEventPublisher.CART_ABANDONED, carts)) {
+                    // The watermark stays put, so the batch is published again on the next run
+                    return;
+                }
+                watermark = entries.get(entries.size() - 1);
+                writeWatermark(watermark);
+                abandonedCarts.increment(carts.size());
+                offset = 0;
+            }
+
+            if (window.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Carts are only ever extended by a write, so an entry older than the TTL belongs to an expired cart
+    private void pruneExpiredEntries() {
+        ZSetOperations<String, String> activity = stringRedisTemplate.opsForZSet();
+        double expiredBefore = System.currentTimeMillis() - cartExpiration.toMillis();
+
+        for (int batch = 0; batch < maxBatchesPerRun && renewLock(); batch++) {
+            Set<TypedTuple<String>> window = activity.rangeByScoreWithScores(
+                    CartRepository.ACTIVITY_KEY, Double.NEGATIVE_INFINITY, expiredBefore, 0, batchSize);
+            if (window == null || window.isEmpty()) {
+                return;
+            }
+            // Removing by score up to the end of the window cannot drop an entry a write has just moved forward
+            double windowEnd = lastOf(window).getScore();
+            Long removed = activity.removeRangeByScore(CartRepository.ACTIVITY_KEY, Double.NEGATIVE_INFINITY, windowEnd);
+            prunedEntries.increment(removed != null ? removed : 0);
+            if (window.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void evictOverMemoryBudget() {
+        if (memoryBudgetBytes <= 0) {
+            return;
+        }
+
+        for (int batch = 0; batch < maxBatchesPerRun && renewLock(); batch++) {
+            long usedMemory = usedMemoryBytes();
+            if (usedMemory <= memoryBudgetBytes) {
+                return;
+            }
+
+            Set<TypedTuple<String>> oldest = stringRedisTemplate.opsForZSet()
+                    .rangeWithScores(CartRepository.ACTIVITY_KEY, 0, batchSize - 1);
+            if (oldest == null || oldest.isEmpty()) {
+                log.warn("Redis uses {} bytes, above the cart memory budget of {}, but no carts are left to evict",
+                        usedMemory, memoryBudgetBytes);
+                return;
+            }
+
+            List<Cart> carts = loadCartsWithItems(new ArrayList<>(oldest));
+            if (!carts.isEmpty() && !eventPublisher.publishBatch(AbandonedCartEventPublisher.CART_EVICTED, carts)) {
+                log.warn("Evicting {} carts without events, Redis is over its memory budget", oldest.size());
+            }
+            for (TypedTuple<String> entry : oldest) {
+                cartRepository.deleteById(entry.getValue());
+                cartNearCache.invalidate(entry.getValue());
+            }
+            evictedCarts.increment(oldest.size());
+            log.info("Evicted {} least recently written carts, Redis used {} bytes of a {} byte budget",
+                    oldest.size(), usedMemory, memoryBudgetBytes);
+        }
+    }
+
+    // Expired and empty carts are skipped; there is nothing to follow up on
+    private List<Cart> loadCartsWithItems(List<TypedTuple<String>> entries) {
+        List<Cart> carts = new ArrayList<>(entries.size());
+        for (TypedTuple<String> entry : entries) {
+            cartRepository.findById(entry.getValue())
+                    .filter(cart -> !cart.getItems().isEmpty())
+                    .ifPresent(carts::add);
+        }
+        return carts;
+    }
+
+    private long usedMemoryBytes() {
+        Properties info = stringRedisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        if (info == null) {
+            return 0;
+        }
+        // A cluster reports every node, as "<host>:<port>.used_memory"; the budget covers all of them
+        long usedMemory = 0;
+        for (String name : info.stringPropertyNames()) {
+            if (name.equals("used_memory") || name.endsWith(".used_memory")) {
+                usedMemory += Long.parseLong(info.getProperty(name));
+            }
+        }
+        return usedMemory;
+    }
+
+    private TypedTuple<String> readWatermark() {
+        Map<Object, Object> fields = stringRedisTemplate.opsForHash().entries(WATERMARK_KEY);
+        if (fields.isEmpty()) {
+            return TypedTuple.of("", Double.NEGATIVE_INFINITY);
+        }
+        return TypedTuple.of((String) fields.get("member"), Double.valueOf((String) fields.get("score")));
+    }
+
+    private void writeWatermark(TypedTuple<String> watermark) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("score", String.valueOf(watermark.getScore()));
+        fields.put("member", watermark.getValue());
+        stringRedisTemplate.opsForHash().putAll(WATERMARK_KEY, fields);
+    }
+
+    // Sorted set order: by score, then by member
+    private static boolean isAfter(TypedTuple<String> entry, TypedTuple<String> watermark) {
+        int byScore = Double.compare(entry.getScore(), watermark.getScore());
+        return byScore > 0 || (byScore == 0 && entry.getValue().compareTo(watermark.getValue()) > 0);
+    }
+
+    private static TypedTuple<String> lastOf(Set<TypedTuple<String>> window) {
+        TypedTuple<String> last = null;
+        for (TypedTuple<String> entry : window) {
+            last = entry;
+        }
+        return last;
+    }
+
+    private static Counter sweepCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("cart.sweeper.carts")
+                .description("Carts handled by the expiry sweeper")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
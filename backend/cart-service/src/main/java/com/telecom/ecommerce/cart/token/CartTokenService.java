@@ -0,0 +1,137 @@
+package com.telecom.ecommerce.cart.token;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Issues and checks the cart tokens stored in the {@code cart_id} cookie. A token is a random cart id
+ * and a truncated HMAC-SHA256 of it, both base64url encoded ({@code <id>.<signature>}, 45 characters),
+ * so a forged or random cookie is rejected in-process before it can reach Redis.
+ * Replicas must share {@code cart.token.secret}, so startup fails without one, except under the
+ * {@code dev} profile, where a random secret is used and tokens only stay valid on this instance until
+ * it restarts.
+ */
+@Component
+public class CartTokenService {
+
+    // Counts cart ids handed out to visitors without a valid token
+    public static final String NEW_VISITORS_METRIC = "cart.visitors.new";
+
+    private static final Logger log = LoggerFactory.getLogger(CartTokenService.class);
+    private static final String DEV_PROFILE = "dev";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int ID_BYTES = 16;
+    private static final int SIGNATURE_BYTES = 16;
+    private static final char SEPARATOR = '.';
+    private static final Pattern LEGACY_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec key;
+    private final boolean acceptUnsigned;
+    private final Counter newVisitors;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public CartTokenService(
+            @Value("${cart.token.secret:}") String secret,
+            @Value("${cart.token.accept-unsigned:true}") boolean acceptUnsigned,
+            MeterRegistry meterRegistry,
+            Environment environment
+    ) {
+        byte[] secretBytes;
+        if (secret.isBlank()) {
+            if (!environment.acceptsProfiles(Profiles.of(DEV_PROFILE))) {
+                throw new IllegalStateException("cart.token.secret (CART_TOKEN_SECRET) must be set; only the "
+                        + DEV_PROFILE + " profile runs without one");
+            }
+            log.warn("cart.token.secret is not set; using a random secret, so cart cookies are only valid on this instance");
+            secretBytes = new byte[32];
+            random.nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.acceptUnsigned = acceptUnsigned;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.newVisitors = Counter.builder(NEW_VISITORS_METRIC)
+                .description("Cart ids issued to visitors without a valid cart token")
+                .register(meterRegistry);
+    }
+
+    public String newCartId() {
+        byte[] id = new byte[ID_BYTES];
+        random.nextBytes(id);
+        newVisitors.increment();
+        return encode(id);
+    }
+
+    public String issue(String cartId) {
+        return cartId + SEPARATOR + encode(sign(cartId));
+    }
+
+    // Returns the cart id of a token this service issued, or empty for anything else
+    public Optional<String> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int separator = token.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return Optional.empty();
+        }
+
+        String cartId = token.substring(0, separator);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return MessageDigest.isEqual(signature, sign(cartId)) ? Optional.of(cartId) : Optional.empty();
+    }
+
+    // Plain UUID cookies from before signed tokens, accepted only while cart.token.accept-unsigned is on
+    // so existing carts survive the rollout; callers should replace them with a signed token
+    public Optional<String> legacyCartId(String token) {
+        return acceptUnsigned && token != null && LEGACY_ID.matcher(token).matches()
+                ? Optional.of(token)
+                : Optional.empty();
+    }
+
+    private byte[] sign(String cartId) {
+        byte[] mac = macs.get().doFinal(cartId.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(mac, SIGNATURE_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
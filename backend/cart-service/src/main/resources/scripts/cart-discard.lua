@@ -0,0 +1,10 @@
+-- Deletes a value-mode cart that cannot be read, but only while its version is still the one read
+-- with it, so a cart written since then is left alone. Returns 1 when deleted, 0 otherwise.
+-- KEYS[1]  cart key
+-- KEYS[2]  version key
+-- ARGV[1]  version read together with the cart ("0" when it had none)
+if (redis.call('GET', KEYS[2]) or '0') == ARGV[1] then
+    redis.call('DEL', KEYS[1], KEYS[2])
+    return 1
+end
+return 0
@@ -0,0 +1,23 @@
+-- Moves a cart from the value layout into a hash, unless the hash exists already or the stored
+-- value changed since it was read. Returns 1 when the cart was moved, 0 otherwise.
+-- KEYS[1]  cart hash key
+-- KEYS[2]  value-layout cart key
+-- KEYS[3]  value-layout version key
+-- ARGV[1]  value-layout version the hash fields were built from
+-- ARGV[2]  TTL in seconds
+-- ARGV[3..] hash fields as (name, value) pairs
+local hashKey, valueKey, versionKey = KEYS[1], KEYS[2], KEYS[3]
+
+if redis.call('EXISTS', hashKey) == 1 or redis.call('EXISTS', valueKey) == 0 then
+    return 0
+end
+if (redis.call('GET', versionKey) or '0') ~= ARGV[1] then
+    return 0
+end
+
+for i = 3, #ARGV, 2 do
+    redis.call('HSET', hashKey, ARGV[i], ARGV[i + 1])
+end
+redis.call('EXPIRE', hashKey, ARGV[2])
+redis.call('DEL', valueKey, versionKey)
+return 1
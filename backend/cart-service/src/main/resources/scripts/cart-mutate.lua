@@ -0,0 +1,70 @@
+-- Applies cart item mutations atomically, bumps the cart version and returns the resulting
+-- cart hash, or {"conflict", current version} without writing when the expected version
+-- does not match, or {"legacy"} without writing when the cart is still stored in the value layout.
+-- KEYS[1]  cart hash key
+-- KEYS[2]  sorted set of cart ids scored by last write time; left out in a cluster, where the
+--          caller records the write itself
+-- KEYS[3]  value-layout key of the same cart, only passed while legacy carts are migrated
+-- ARGV[1]  updatedAt timestamp
+-- ARGV[2]  header JSON used when the cart does not exist yet
+-- ARGV[3]  TTL in seconds
+-- ARGV[4]  remaining TTL in seconds below which the TTL is extended
+-- ARGV[5]  expiresAt timestamp matching an extended TTL
+-- ARGV[6]  expected version, or "" to write unconditionally
+-- ARGV[7]  write time in epoch milliseconds
+-- ARGV[8]  cart id
+-- ARGV[9..] operations as (op, productId, quantity, item snapshot JSON) groups,
+--          where op is "add", "set" or "remove"
+local key = KEYS[1]
+
+-- Writing now would start an empty hash next to the stored cart, so the caller migrates it first
+if KEYS[3] and redis.call('EXISTS', key) == 0 and redis.call('EXISTS', KEYS[3]) == 1 then
+    return {'legacy'}
+end
+
+if ARGV[6] ~= '' then
+    local version = redis.call('HGET', key, 'version') or '0'
+    if version ~= ARGV[6] then
+        return {'conflict', version}
+    end
+end
+
+-- A missing key (-2) or one without expiry (-1) always gets a TTL
+local refreshTtl = redis.call('TTL', key) < tonumber(ARGV[4])
+
+local header = redis.call('HGET', key, 'header')
+if header then
+    local decoded = cjson.decode(header)
+    decoded['updatedAt'] = ARGV[1]
+    if refreshTtl then
+        decoded['expiresAt'] = ARGV[5]
+    end
+    header = cjson.encode(decoded)
+else
+    header = ARGV[2]
+end
+redis.call('HSET', key, 'header', header)
+
+for i = 9, #ARGV, 4 do
+    local op, productId, quantity, snapshot = ARGV[i], ARGV[i + 1], ARGV[i + 2], ARGV[i + 3]
+    local itemField, quantityField = 'item:' .. productId, 'qty:' .. productId
+    if op == 'add' then
+        redis.call('HSETNX', key, itemField, snapshot)
+        redis.call('HINCRBY', key, quantityField, quantity)
+    elseif op == 'set' then
+        if redis.call('HEXISTS', key, itemField) == 1 then
+            redis.call('HSET', key, quantityField, quantity)
+        end
+    elseif op == 'remove' then
+        redis.call('HDEL', key, itemField, quantityField)
+    end
+end
+
+redis.call('HINCRBY', key, 'version', 1)
+if refreshTtl then
+    redis.call('EXPIRE', key, ARGV[3])
+end
+if KEYS[2] then
+    redis.call('ZADD', KEYS[2], ARGV[7], ARGV[8])
+end
+return redis.call('HGETALL', key)
@@ -0,0 +1,33 @@
+-- Stores a value-mode cart, bumps its version and returns the new version,
+-- or -1 without writing when the expected version does not match.
+-- KEYS[1]  cart key
+-- KEYS[2]  version key
+-- KEYS[3]  sorted set of cart ids scored by last write time; left out in a cluster, where the
+--          caller records the write itself
+-- ARGV[1]  serialized cart
+-- ARGV[2]  TTL in seconds, or "" to keep the current TTL
+-- ARGV[3]  expected version, or "" to write unconditionally
+-- ARGV[4]  write time in epoch milliseconds
+-- ARGV[5]  cart id
+local cartKey, versionKey = KEYS[1], KEYS[2]
+
+if ARGV[3] ~= '' and (redis.call('GET', versionKey) or '0') ~= ARGV[3] then
+    return -1
+end
+
+if ARGV[2] == '' then
+    redis.call('SET', cartKey, ARGV[1], 'KEEPTTL')
+else
+    redis.call('SET', cartKey, ARGV[1], 'EX', ARGV[2])
+end
+
+-- The version expires together with the cart
+local version = redis.call('INCR', versionKey)
+local ttl = redis.call('PTTL', cartKey)
+if ttl > 0 then
+    redis.call('PEXPIRE', versionKey, ttl)
+end
+if KEYS[3] then
+    redis.call('ZADD', KEYS[3], ARGV[4], ARGV[5])
+end
+return version
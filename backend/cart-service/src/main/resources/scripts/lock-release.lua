@@ -0,0 +1,8 @@
+-- Deletes a lock, but only while the caller still holds it, so a lock that expired and was taken
+-- by another instance is left alone. Returns 1 when released, 0 otherwise.
+-- KEYS[1]  lock key
+-- ARGV[1]  owner id the lock was taken with
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
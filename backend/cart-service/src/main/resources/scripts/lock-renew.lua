@@ -0,0 +1,8 @@
+-- Extends a lock, but only while the caller still holds it. Returns 1 when extended, 0 otherwise.
+-- KEYS[1]  lock key
+-- ARGV[1]  owner id the lock was taken with
+-- ARGV[2]  new TTL in milliseconds
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
@@ -0,0 +1,73 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.telecom.ecommerce.cart.model.Cart;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class CartNearCacheTest {
+
+    private CartNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        nearCache = new CartNearCache(mock(StringRedisTemplate.class), new RedisMessageListenerContainer(),
+                new SimpleMeterRegistry(), true, 100, 30, "cart:invalidate");
+    }
+
+    @Test
+    void putsCartReadBeforeAnyInvalidation() {
+        long stamp = nearCache.invalidationStamp("c1");
+        nearCache.put(cart("c1", 3L), stamp);
+
+        assertEquals(3L, nearCache.get("c1").getVersion());
+    }
+
+    @Test
+    void skipsCartReadBeforeAnInvalidation() {
+        long stamp = nearCache.invalidationStamp("c1");
+        nearCache.invalidate("c1");
+        nearCache.put(cart("c1", 3L), stamp);
+
+        assertNull(nearCache.get("c1"));
+    }
+
+    @Test
+    void keepsTheNewerVersion() {
+        nearCache.put(cart("c1", 5L), nearCache.invalidationStamp("c1"));
+        nearCache.put(cart("c1", 4L), nearCache.invalidationStamp("c1"));
+
+        assertEquals(5L, nearCache.get("c1").getVersion());
+
+        nearCache.put(cart("c1", 6L), nearCache.invalidationStamp("c1"));
+
+        assertEquals(6L, nearCache.get("c1").getVersion());
+    }
+
+    @Test
+    void handsOutCopies() {
+        nearCache.put(cart("c1", 1L), nearCache.invalidationStamp("c1"));
+
+        Cart cart = nearCache.get("c1");
+        cart.setTotal(BigDecimal.TEN);
+
+        assertNotSame(cart, nearCache.get("c1"));
+        assertNull(nearCache.get("c1").getTotal());
+    }
+
+    private static Cart cart(String id, Long version) {
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setVersion(version);
+        return cart;
+    }
+}
@@ -0,0 +1,126 @@
+package com.telecom.ecommerce.cart.cache;
+
+import com.telecom.ecommerce.cart.client.DiscountServiceClient;
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiscountCacheTest {
+
+    private DiscountServiceClient discountServiceClient;
+    private DiscountCache discountCache;
+
+    @BeforeEach
+    void setUp() {
+        discountServiceClient = mock(DiscountServiceClient.class);
+        discountCache = new DiscountCache(discountServiceClient);
+    }
+
+    @Test
+    void keepsTheGenerationWhenARefreshChangesNothing() {
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Collections.singletonList(discount(1L, 10, LocalDateTime.now().plusHours(1))));
+        discountCache.refresh();
+        long generation = discountCache.generation();
+
+        discountCache.refresh();
+
+        assertEquals(generation, discountCache.generation());
+        assertEquals(10, discountCache.get(1L).getPercentage());
+    }
+
+    @Test
+    void movesTheGenerationWhenARefreshChangesADiscount() {
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1);
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Collections.singletonList(discount(1L, 10, expiry)))
+                .thenReturn(Collections.singletonList(discount(1L, 20, expiry)))
+                .thenReturn(Arrays.asList(discount(1L, 20, expiry), discount(2L, 5, expiry)))
+                .thenReturn(Collections.singletonList(discount(2L, 5, expiry)));
+        discountCache.refresh();
+
+        for (int refresh = 0; refresh < 3; refresh++) {
+            long generation = discountCache.generation();
+            discountCache.refresh();
+            assertNotEquals(generation, discountCache.generation());
+        }
+        assertNull(discountCache.get(1L));
+        assertEquals(5, discountCache.get(2L).getPercentage());
+    }
+
+    @Test
+    void keepsTheGenerationWhenARefreshFails() {
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Collections.singletonList(discount(1L, 10, LocalDateTime.now().plusHours(1))))
+                .thenThrow(new IllegalStateException("discount-service is down"));
+        discountCache.refresh();
+        long generation = discountCache.generation();
+
+        discountCache.refresh();
+
+        assertEquals(generation, discountCache.generation());
+        assertEquals(10, discountCache.get(1L).getPercentage());
+    }
+
+    @Test
+    void movesTheGenerationOnceADiscountExpires() throws InterruptedException {
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Arrays.asList(discount(1L, 10, LocalDateTime.now().plusNanos(200_000_000)),
+                        discount(2L, 5, LocalDateTime.now().plusHours(1))));
+        discountCache.refresh();
+        long generation = discountCache.generation();
+        assertEquals(10, discountCache.get(1L).getPercentage());
+
+        Thread.sleep(300);
+
+        assertNull(discountCache.get(1L));
+        long expiredGeneration = discountCache.generation();
+        assertNotEquals(generation, expiredGeneration);
+        assertEquals(expiredGeneration, discountCache.generation());
+        assertEquals(5, discountCache.get(2L).getPercentage());
+    }
+
+    @Test
+    void ignoresExpiredAndUnparsableDiscounts() {
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Arrays.asList(discount(1L, 10, LocalDateTime.now().minusMinutes(1)),
+                        DiscountDto.builder().id(2L).productId(2L).percentage(10).expiryTime("tomorrow").active(true).build()));
+
+        discountCache.refresh();
+
+        assertNull(discountCache.get(1L));
+        assertNull(discountCache.get(2L));
+    }
+
+    @Test
+    void keepsTheBestDiscountPerProduct() {
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1);
+        when(discountServiceClient.getActiveDiscounts())
+                .thenReturn(Arrays.asList(discount(1L, 10, expiry), discount(1L, 30, expiry), discount(1L, 20, expiry)));
+
+        discountCache.refresh();
+
+        assertEquals(30, discountCache.get(1L).getPercentage());
+    }
+
+    private static DiscountDto discount(Long productId, int percentage, LocalDateTime expiry) {
+        return DiscountDto.builder()
+                .id(productId * 100 + percentage)
+                .productId(productId)
+                .percentage(percentage)
+                .expiryTime(expiry.format(DateTimeFormatter.ISO_DATE_TIME))
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.telecom.ecommerce.cart.controller;
+
+import com.telecom.ecommerce.cart.dto.CartResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartETagsTest {
+
+    @Test
+    void tagsTheResponseWithVersionAndGeneration() {
+        CartResponse cartResponse = new CartResponse();
+        cartResponse.setVersion(7L);
+
+        ResponseEntity<CartResponse> response = CartETags.withETag(ResponseEntity.ok(), cartResponse, "1a-2b");
+
+        assertEquals("\"7-1a-2b\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void matchesOnlyTheSameVersionAndGeneration() {
+        String eTag = CartETags.eTag(7L, "1a-2b");
+
+        assertTrue(CartETags.matchesAny("\"7-1a-2b\"", eTag));
+        assertTrue(CartETags.matchesAny("W/\"7-1a-2b\"", eTag));
+        assertTrue(CartETags.matchesAny("\"6-1a-2b\", \"7-1a-2b\"", eTag));
+        assertTrue(CartETags.matchesAny("*", eTag));
+        assertFalse(CartETags.matchesAny("\"7-1a-2c\"", eTag));
+        assertFalse(CartETags.matchesAny("\"7-1b-2b\"", eTag));
+        assertFalse(CartETags.matchesAny("\"6-1a-2b\"", eTag));
+        // Tags from before the generation was added never match
+        assertFalse(CartETags.matchesAny("\"7\"", eTag));
+    }
+
+    @Test
+    void takesTheVersionFromIfMatch() {
+        assertEquals(7L, CartETags.parseIfMatch("\"7-1a-2b\""));
+        assertEquals(7L, CartETags.parseIfMatch("\"7\""));
+        assertNull(CartETags.parseIfMatch(null));
+        assertNull(CartETags.parseIfMatch("*"));
+    }
+
+    @Test
+    void rejectsWeakAndMalformedIfMatch() {
+        assertThrows(ResponseStatusException.class, () -> CartETags.parseIfMatch("W/\"7-1a-2b\""));
+        assertThrows(ResponseStatusException.class, () -> CartETags.parseIfMatch("7-1a-2b"));
+        assertThrows(ResponseStatusException.class, () -> CartETags.parseIfMatch("\"-1a-2b\""));
+        assertThrows(ResponseStatusException.class, () -> CartETags.parseIfMatch("\"seven\""));
+    }
+}
@@ -0,0 +1,69 @@
+package com.telecom.ecommerce.cart.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartTest {
+
+    @Test
+    void reusesItemListUntilLinesChange() {
+        Cart cart = new Cart();
+        cart.addItem(item(1L, 1));
+        List<CartItem> items = cart.getItems();
+
+        assertSame(items, cart.getItems());
+        cart.addItem(item(1L, 2));
+        assertSame(items, cart.getItems());
+        assertEquals(3, cart.getItems().get(0).getQuantity());
+
+        cart.addItem(item(2L, 1));
+        assertNotSame(items, cart.getItems());
+        assertEquals(Arrays.asList(1L, 2L), productIds(cart));
+
+        cart.removeItem(1L);
+        assertEquals(Arrays.asList(2L), productIds(cart));
+
+        cart.setItems(Arrays.asList(item(3L, 1), item(4L, 1)));
+        assertEquals(Arrays.asList(3L, 4L), productIds(cart));
+    }
+
+    @Test
+    void itemListIsReadOnly() {
+        Cart cart = new Cart();
+        cart.addItem(item(1L, 1));
+
+        assertThrows(UnsupportedOperationException.class, () -> cart.getItems().add(item(2L, 1)));
+    }
+
+    @Test
+    void copyDoesNotShareLines() {
+        Cart cart = new Cart();
+        cart.addItem(item(1L, 1));
+        Cart copy = cart.copy();
+
+        copy.findItem(1L).get().setQuantity(5);
+        copy.addItem(item(2L, 1));
+
+        assertEquals(1, cart.getItems().size());
+        assertEquals(1, cart.getItems().get(0).getQuantity());
+    }
+
+    private static List<Long> productIds(Cart cart) {
+        return cart.getItems().stream().map(CartItem::getProductId).collect(Collectors.toList());
+    }
+
+    private static CartItem item(Long productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
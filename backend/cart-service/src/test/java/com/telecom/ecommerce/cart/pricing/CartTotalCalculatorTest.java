@@ -0,0 +1,208 @@
+package com.telecom.ecommerce.cart.pricing;
+
+import com.telecom.ecommerce.cart.cache.DiscountCache;
+import com.telecom.ecommerce.cart.dto.DiscountDto;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartTotalCalculatorTest {
+
+    private DiscountCache discountCache;
+    private CartTotalCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        discountCache = mock(DiscountCache.class);
+        calculator = new CartTotalCalculator(discountCache);
+    }
+
+    @Test
+    void sumsLinesWithoutDiscounts() {
+        Cart cart = cart(item(1L, "19.99", 2), item(2L, "5.00", 3));
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("54.98"), cart.getTotal());
+    }
+
+    @Test
+    void totalOfEmptyCartIsZeroWithTwoDecimals() {
+        Cart cart = cart();
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("0.00"), cart.getTotal());
+    }
+
+    @Test
+    void roundsUnitPriceHalfUpBeforeMultiplying() {
+        // 0.005 rounds to 0.01 per unit, not 0.005 * 3 = 0.015 rounded once
+        Cart cart = cart(item(1L, "0.005", 3), item(2L, "1.004", 1));
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("1.03"), cart.getTotal());
+    }
+
+    @Test
+    void roundsDiscountedUnitPriceHalfUp() {
+        // 9.99 at 15% off is 8.4915, which rounds to 8.49; 0.05 at 50% off is 0.025, which rounds to 0.03
+        discount(1L, 15);
+        discount(2L, 50);
+        Cart cart = cart(item(1L, "9.99", 2), item(2L, "0.05", 1));
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("17.01"), cart.getTotal());
+        assertEquals(15, cart.getItems().get(0).getDiscountPercentage());
+        assertEquals("2030-01-01T00:00:00", cart.getItems().get(0).getDiscountExpiry());
+    }
+
+    @Test
+    void clampsDiscountPercentage() {
+        assertEquals(0, CartTotalCalculator.lineTotalCents(1999, 120, 3));
+        assertEquals(5997, CartTotalCalculator.lineTotalCents(1999, -10, 3));
+    }
+
+    @Test
+    void dropsDiscountThatIsNoLongerActive() {
+        CartItem item = item(1L, "10.00", 1);
+        item.setDiscountPercentage(50);
+        item.setDiscountExpiry("2020-01-01T00:00:00");
+        Cart cart = cart(item);
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("10.00"), cart.getTotal());
+        assertNull(cart.getItems().get(0).getDiscountPercentage());
+        assertNull(cart.getItems().get(0).getDiscountExpiry());
+    }
+
+    @Test
+    void handlesLargeQuantitiesExactly() {
+        Cart cart = cart(item(1L, "999999.99", Integer.MAX_VALUE));
+
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("999999.99").multiply(BigDecimal.valueOf(Integer.MAX_VALUE)), cart.getTotal());
+    }
+
+    @Test
+    void failsInsteadOfOverflowing() {
+        assertThrows(ArithmeticException.class,
+                () -> CartTotalCalculator.lineTotalCents(Long.MAX_VALUE / 2, 0, 3));
+        Cart cart = cart(item(1L, "90000000000000000.00", 1), item(2L, "90000000000000000.00", 1));
+
+        assertThrows(ArithmeticException.class, () -> calculator.updateTotal(cart));
+    }
+
+    @Test
+    void recalculatesCentsWhenPriceChanges() {
+        CartItem item = item(1L, "2.50", 2);
+        Cart cart = cart(item);
+        calculator.updateTotal(cart);
+
+        cart.findItem(1L).get().setPrice(new BigDecimal("3.00"));
+        calculator.updateTotal(cart);
+
+        assertEquals(new BigDecimal("6.00"), cart.getTotal());
+    }
+
+    @Test
+    void matchesBigDecimalCalculationOnRandomCarts() {
+        Random random = new Random(20261018L);
+        Map<Long, DiscountDto> activeDiscounts = new HashMap<>();
+        when(discountCache.get(anyLong())).thenAnswer(invocation -> activeDiscounts.get(invocation.<Long>getArgument(0)));
+
+        for (int run = 0; run < 20_000; run++) {
+            activeDiscounts.clear();
+            List<CartItem> items = new ArrayList<>();
+            int itemCount = random.nextInt(9);
+            for (long productId = 1; productId <= itemCount; productId++) {
+                // 0 to 4 decimals, so unit prices need rounding as often as not
+                BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), random.nextInt(5));
+                int quantity = random.nextInt(20) == 0 ? random.nextInt(Integer.MAX_VALUE / 1000) + 1 : random.nextInt(1000) + 1;
+                CartItem item = item(productId, price.toPlainString(), quantity);
+                if (random.nextInt(4) == 0) {
+                    // Left over from a discount that has expired since, so the cache no longer returns it
+                    item.setDiscountPercentage(random.nextInt(100) + 1);
+                    item.setDiscountExpiry("2020-01-01T00:00:00");
+                }
+                if (random.nextBoolean()) {
+                    // Out-of-range percentages are clamped to 0..100
+                    activeDiscounts.put(productId, activeDiscount(productId, random.nextInt(121) - 10));
+                }
+                items.add(item);
+            }
+            Cart cart = cart(items.toArray(new CartItem[0]));
+            BigDecimal expected = referenceTotal(items, activeDiscounts);
+
+            calculator.updateTotal(cart);
+
+            assertEquals(expected, cart.getTotal(), "cart " + items + " with discounts " + activeDiscounts);
+        }
+    }
+
+    // The BigDecimal calculation the calculator replaced, with its rounding rules: unit price and
+    // discounted unit price rounded half-up to the cent, line totals summed exactly
+    private static BigDecimal referenceTotal(List<CartItem> items, Map<Long, DiscountDto> activeDiscounts) {
+        BigDecimal total = BigDecimal.ZERO.setScale(2);
+        for (CartItem item : items) {
+            BigDecimal price = item.getPrice().setScale(2, RoundingMode.HALF_UP);
+            DiscountDto discount = activeDiscounts.get(item.getProductId());
+            if (discount != null) {
+                int percentage = Math.min(Math.max(discount.getPercentage(), 0), 100);
+                price = price.multiply(BigDecimal.valueOf(100 - percentage))
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            }
+            total = total.add(price.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+
+    private void discount(Long productId, int percentage) {
+        when(discountCache.get(productId)).thenReturn(activeDiscount(productId, percentage));
+    }
+
+    private static DiscountDto activeDiscount(Long productId, int percentage) {
+        DiscountDto discount = new DiscountDto();
+        discount.setProductId(productId);
+        discount.setPercentage(percentage);
+        discount.setExpiryTime("2030-01-01T00:00:00");
+        discount.setActive(true);
+        return discount;
+    }
+
+    private static Cart cart(CartItem... items) {
+        Cart cart = new Cart();
+        cart.setId("cart-1");
+        cart.setItems(Arrays.asList(items));
+        return cart;
+    }
+
+    private static CartItem item(Long productId, String price, int quantity) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setPrice(new BigDecimal(price));
+        item.setQuantity(quantity);
+        return item;
+    }
+}
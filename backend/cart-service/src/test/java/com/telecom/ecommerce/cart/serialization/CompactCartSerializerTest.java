@@ -0,0 +1,172 @@
+package com.telecom.ecommerce.cart.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.telecom.ecommerce.cart.model.Cart;
+import com.telecom.ecommerce.cart.model.CartItem;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompactCartSerializerTest {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000);
+
+    private final Jackson2JsonRedisSerializer<Cart> jsonSerializer = jsonSerializer();
+    private final CompactCartSerializer serializer = new CompactCartSerializer(jsonSerializer, COMPRESSION_THRESHOLD);
+
+    @Test
+    void roundTripsSmallCartWithoutDeflating() {
+        Cart cart = cart(item(1L, "Unlimited SIM", new BigDecimal("19.99"), 2));
+
+        byte[] bytes = serializer.serialize(cart);
+
+        assertEquals(0, bytes[2]);
+        assertEquals(cart, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void roundTripsLargeCartDeflated() {
+        CartItem[] items = new CartItem[50];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = item((long) i, "Phone case " + i, new BigDecimal("9.50"), i + 1);
+            items[i].setDescription("A sturdy case that fits the phone it is named after, in several colours");
+        }
+        Cart cart = cart(items);
+
+        byte[] bytes = serializer.serialize(cart);
+
+        assertEquals(1, bytes[2]);
+        assertEquals(cart, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        CartItem slimItem = new CartItem();
+        slimItem.setProductId(7L);
+        slimItem.setQuantity(1);
+        Cart cart = new Cart();
+        cart.setId("cart-1");
+        cart.setItems(Collections.singletonList(slimItem));
+
+        Cart read = serializer.deserialize(serializer.serialize(cart));
+
+        assertEquals(cart, read);
+        assertNull(read.getTotal());
+        assertNull(read.getCreatedAt());
+        assertNull(read.getItems().get(0).getName());
+        assertNull(read.getItems().get(0).getPrice());
+    }
+
+    @Test
+    void roundTripsStringsLongerThan64Kilobytes() {
+        char[] description = new char[70_000];
+        Arrays.fill(description, 'é');
+        CartItem item = item(1L, "Bundle", new BigDecimal("5.00"), 1);
+        item.setDescription(new String(description));
+        Cart cart = cart(item);
+
+        assertEquals(cart, serializer.deserialize(serializer.serialize(cart)));
+    }
+
+    @Test
+    void readsJsonThroughFallback() {
+        Cart cart = cart(item(1L, "Unlimited SIM", new BigDecimal("19.99"), 2));
+
+        Cart read = serializer.deserialize(jsonSerializer.serialize(cart));
+
+        assertEquals(cart, read);
+    }
+
+    @Test
+    void readsVersionOneCarts() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{(byte) 0xCA, 1, 0});
+        writeUtf(out, "cart-1");
+        writeUtf(out, "39.98");
+        out.writeBoolean(true);
+        out.writeLong(CREATED_AT.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(CREATED_AT.getNano());
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeInt(1);
+        out.writeBoolean(true);
+        out.writeLong(1L);
+        writeUtf(out, "Unlimited SIM");
+        out.writeBoolean(false);
+        writeUtf(out, "19.99");
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeBoolean(true);
+        out.writeInt(2);
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+
+        Cart read = serializer.deserialize(bytes.toByteArray());
+
+        assertEquals("cart-1", read.getId());
+        assertEquals(new BigDecimal("39.98"), read.getTotal());
+        assertEquals(CREATED_AT, read.getCreatedAt());
+        assertEquals("Unlimited SIM", read.getItems().get(0).getName());
+        assertEquals(2, read.getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void mapsNullToNull() {
+        assertNull(serializer.serialize(null));
+        assertNull(serializer.deserialize(null));
+    }
+
+    private static void writeUtf(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(true);
+        out.writeUTF(value);
+    }
+
+    private static Cart cart(CartItem... items) {
+        Cart cart = new Cart();
+        cart.setId("cart-1");
+        cart.setItems(Arrays.asList(items));
+        cart.setTotal(new BigDecimal("39.98"));
+        cart.setCreatedAt(CREATED_AT);
+        cart.setUpdatedAt(CREATED_AT.plusMinutes(5));
+        cart.setExpiresAt(CREATED_AT.plusDays(7));
+        return cart;
+    }
+
+    private static CartItem item(Long productId, String name, BigDecimal price, int quantity) {
+        CartItem item = new CartItem();
+        item.setProductId(productId);
+        item.setName(name);
+        item.setPrice(price);
+        item.setType("accessory");
+        item.setBrand("Acme");
+        item.setQuantity(quantity);
+        item.setDiscountPercentage(10);
+        item.setDiscountExpiry("2024-04-01T00:00:00");
+        return item;
+    }
+
+    private static Jackson2JsonRedisSerializer<Cart> jsonSerializer() {
+        Jackson2JsonRedisSerializer<Cart> serializer = new Jackson2JsonRedisSerializer<>(Cart.class);
+        serializer.setObjectMapper(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        return serializer;
+    }
+}
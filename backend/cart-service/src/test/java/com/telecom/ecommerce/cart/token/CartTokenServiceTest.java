@@ -0,0 +1,55 @@
+package com.telecom.ecommerce.cart.token;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartTokenServiceTest {
+
+    private static final String LEGACY_ID = "3f2b8c1e-6a4d-4e2f-9b7a-1c5d8e0f2a3b";
+
+    @Test
+    void requiresSecretOutsideDevProfile() {
+        assertThrows(IllegalStateException.class, () -> service(" ", true, new MockEnvironment()));
+    }
+
+    @Test
+    void usesRandomSecretUnderDevProfile() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("dev");
+        CartTokenService tokens = service("", true, environment);
+
+        String cartId = tokens.newCartId();
+
+        assertEquals(Optional.of(cartId), tokens.verify(tokens.issue(cartId)));
+    }
+
+    @Test
+    void verifiesOnlyTokensSignedWithTheSameSecret() {
+        CartTokenService tokens = service("secret-a", true, new MockEnvironment());
+        CartTokenService otherTokens = service("secret-b", true, new MockEnvironment());
+        String cartId = tokens.newCartId();
+        String token = tokens.issue(cartId);
+
+        assertEquals(Optional.of(cartId), service("secret-a", true, new MockEnvironment()).verify(token));
+        assertTrue(otherTokens.verify(token).isEmpty());
+        assertTrue(tokens.verify(cartId + ".AAAAAAAAAAAAAAAAAAAAAA").isEmpty());
+        assertTrue(tokens.verify("not-a-token").isEmpty());
+    }
+
+    @Test
+    void acceptsUnsignedIdsOnlyWhileEnabled() {
+        assertEquals(Optional.of(LEGACY_ID), service("secret", true, new MockEnvironment()).legacyCartId(LEGACY_ID));
+        assertTrue(service("secret", false, new MockEnvironment()).legacyCartId(LEGACY_ID).isEmpty());
+    }
+
+    private static CartTokenService service(String secret, boolean acceptUnsigned, MockEnvironment environment) {
+        return new CartTokenService(secret, acceptUnsigned, new SimpleMeterRegistry(), environment);
+    }
+}
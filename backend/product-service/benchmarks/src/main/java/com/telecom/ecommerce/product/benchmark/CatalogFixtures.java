@@ -0,0 +1,99 @@
+package com.telecom.ecommerce.product.benchmark;
+
+import com.telecom.ecommerce.product.ProductServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Starts product-service without a web server against an in-memory H2 database and fills it with
+ * a generated catalog: tariffs, devices, accessories and bundles in equal parts, eight data
+ * allowances, twenty brands and creation times spread over the last year. Seeded, so every run
+ * gets the same products. H2 result reuse is off: the table never changes during a benchmark, so H2
+ * would otherwise answer every repeated query from its previous result.
+ */
+final class CatalogFixtures {
+
+    static final String[] TYPES = {"tariff", "device", "accessory", "bundle"};
+    static final String[] DATA_ALLOWANCES = {"1GB", "5GB", "10GB", "20GB", "30GB", "50GB", "100GB", "Unlimited"};
+    static final int BRANDS = 20;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private CatalogFixtures() {
+    }
+
+    static ConfigurableApplicationContext startProductService(boolean inMemoryCatalog) {
+        return new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:catalog;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--eureka.client.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--product.catalog.in-memory.enabled=" + inMemoryCatalog);
+    }
+
+    static void insertProducts(JdbcTemplate jdbcTemplate, int count) {
+        Random random = new Random(42);
+        Instant now = Instant.now();
+        long yearMillis = Duration.ofDays(365).toMillis();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            String type = TYPES[i % TYPES.length];
+            boolean hasData = type.equals("tariff") || type.equals("bundle");
+            boolean hasBrand = !type.equals("tariff");
+            Timestamp createdAt = Timestamp.from(now.minusMillis((long) (random.nextDouble() * yearMillis)));
+            batch.add(new Object[]{
+                    "Product " + i,
+                    "Generated " + type + " number " + i,
+                    price(random, type),
+                    type,
+                    "https://via.placeholder.com/300x200?text=Product+" + i,
+                    hasData ? DATA_ALLOWANCES[random.nextInt(DATA_ALLOWANCES.length)] : null,
+                    hasBrand ? brand(random.nextInt(BRANDS)) : null,
+                    createdAt,
+                    createdAt
+            });
+            if (batch.size() == INSERT_BATCH_SIZE || i == count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, type, image_url, "
+                        + "data_allowance, brand, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    static String brand(int index) {
+        return String.format("Brand%02d", index);
+    }
+
+    private static BigDecimal price(Random random, String type) {
+        int maxCents;
+        switch (type) {
+            case "tariff":
+                maxCents = 100_00;
+                break;
+            case "device":
+                maxCents = 2000_00;
+                break;
+            case "accessory":
+                maxCents = 200_00;
+                break;
+            default:
+                maxCents = 2500_00;
+        }
+        return BigDecimal.valueOf(500 + random.nextInt(maxCents - 500), 2);
+    }
+}
@@ -0,0 +1,124 @@
+package com.telecom.ecommerce.product.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telecom.ecommerce.product.cache.ProductCache;
+import com.telecom.ecommerce.product.cache.ProductListingCache;
+import com.telecom.ecommerce.product.catalog.InMemoryCatalog;
+import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import com.telecom.ecommerce.product.repository.ProductRepository;
+import com.telecom.ecommerce.product.service.ProductMapper;
+import com.telecom.ecommerce.product.service.ProductService;
+import com.telecom.ecommerce.product.service.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Filtered catalog listings through ProductServiceImpl, once with the JPA query and once with the
+ * in-memory catalog, over the same generated products. The database is H2, not Postgres, so the JPA
+ * numbers show the shape of a sequential scan plus count rather than production latencies.
+ * Setup checks that both paths return the same page before anything is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class CatalogQueryBenchmark {
+
+    private static final BigDecimal SELECTIVE_MAX_PRICE = new BigDecimal("500");
+    private static final String SELECTIVE_BRAND = CatalogFixtures.brand(7);
+
+    @Param({"1000", "100000", "1000000"})
+    public int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductService jpaService;
+    private ProductService inMemoryService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = CatalogFixtures.startProductService(true);
+        CatalogFixtures.insertProducts(context.getBean(JdbcTemplate.class), products);
+        context.getBean(InMemoryCatalog.class).load();
+
+        inMemoryService = context.getBean(ProductService.class);
+        jpaService = new ProductServiceImpl(
+                context.getBean(ProductRepository.class),
+                context.getBean(ProductCache.class),
+                context.getBean(ProductListingCache.class),
+                context.getBean(ProductMapper.class),
+                context.getBean(ObjectMapper.class),
+                null);
+
+        // Prices rather than ids, since products with equal prices may come back in either order
+        checkSamePage("selective", CatalogQueryBenchmark::selective, product -> product.getPrice().toPlainString());
+        checkSamePage("broad", CatalogQueryBenchmark::broad, ProductResponse::getId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductPage jpaSelective() {
+        return selective(jpaService);
+    }
+
+    @Benchmark
+    public ProductPage inMemorySelective() {
+        return selective(inMemoryService);
+    }
+
+    @Benchmark
+    public ProductPage jpaBroad() {
+        return broad(jpaService);
+    }
+
+    @Benchmark
+    public ProductPage inMemoryBroad() {
+        return broad(inMemoryService);
+    }
+
+    // Three filters matching about 0.3% of the catalog, most expensive first
+    private static ProductPage selective(ProductService service) {
+        return service.getProductsByFilters("device", SELECTIVE_MAX_PRICE, null, SELECTIVE_BRAND, 0, 10, "price-high-low");
+    }
+
+    // One filter matching a quarter of the catalog, sixth page by creation time
+    private static ProductPage broad(ProductService service) {
+        return service.getProductsByFilters("tariff", null, null, null, 5, 10, "newest");
+    }
+
+    private void checkSamePage(String name, Function<ProductService, ProductPage> query, Function<ProductResponse, Object> key) {
+        ProductPage expected = query.apply(jpaService);
+        ProductPage actual = query.apply(inMemoryService);
+        List<Object> expectedKeys = expected.getProducts().stream().map(key).collect(Collectors.toList());
+        List<Object> actualKeys = actual.getProducts().stream().map(key).collect(Collectors.toList());
+        if (expected.getTotalElements() != actual.getTotalElements() || !expectedKeys.equals(actualKeys)) {
+            throw new IllegalStateException(String.format("The %s query differs: JPA %d %s, in-memory %d %s",
+                    name, expected.getTotalElements(), expectedKeys, actual.getTotalElements(), actualKeys));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.telecom.ecommerce.product.benchmark;
+
+import com.telecom.ecommerce.product.dto.ProductCursorPage;
+import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import com.telecom.ecommerce.product.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The whole catalog by price through JPA, page 1 and page 1000 of ten products each, with offset
+ * pagination (which also counts the matches) and with keyset pagination (with and without the count).
+ * Setup walks the cursor to page 1000 and checks that it holds the same products as the offset page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ListingPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGE = 1000;
+    private static final String SORT = "price-low-high";
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private String deepPageCursor;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = CatalogFixtures.startProductService(false);
+        CatalogFixtures.insertProducts(context.getBean(JdbcTemplate.class), products);
+        productService = context.getBean(ProductService.class);
+
+        String cursor = "";
+        for (int page = 1; page < DEEP_PAGE; page++) {
+            cursor = keyset(cursor, false).getNextCursor();
+        }
+        deepPageCursor = cursor;
+
+        List<Long> expected = ids(offset(DEEP_PAGE - 1).getProducts());
+        List<Long> actual = ids(keyset(deepPageCursor, false).getProducts());
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Page " + DEEP_PAGE + " differs: offset " + expected + ", keyset " + actual);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductPage offsetFirstPage() {
+        return offset(0);
+    }
+
+    @Benchmark
+    public ProductPage offsetDeepPage() {
+        return offset(DEEP_PAGE - 1);
+    }
+
+    @Benchmark
+    public ProductCursorPage keysetFirstPage() {
+        return keyset("", false);
+    }
+
+    @Benchmark
+    public ProductCursorPage keysetDeepPage() {
+        return keyset(deepPageCursor, false);
+    }
+
+    @Benchmark
+    public ProductCursorPage keysetDeepPageWithTotal() {
+        return keyset(deepPageCursor, true);
+    }
+
+    private ProductPage offset(int page) {
+        return productService.getAllProducts(page, PAGE_SIZE, SORT);
+    }
+
+    private ProductCursorPage keyset(String cursor, boolean includeTotal) {
+        return productService.getProductsAfter(null, null, null, null, cursor, PAGE_SIZE, SORT, includeTotal);
+    }
+
+    private static List<Long> ids(List<ProductResponse> products) {
+        return products.stream().map(ProductResponse::getId).collect(Collectors.toList());
+    }
+}
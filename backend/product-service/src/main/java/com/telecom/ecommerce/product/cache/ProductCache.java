@@ -0,0 +1,201 @@
+package com.telecom.ecommerce.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import com.telecom.ecommerce.product.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for product lookups: a bounded in-process cache (L1) in front of the optional
+ * shared Redis cache (L2, {@link ProductRedisCache}) in front of the database.
+ * Concurrent misses for one product share a single load. Product writes evict both levels, raise a
+ * {@link ProductChangedEvent}, drop the listing pages in {@link ProductListingCache} and, with Redis
+ * enabled, publish the product id so other replicas do the same locally. Messages are lost while a
+ * replica is disconnected, and without Redis there are no messages at all, so L1 entries and listing
+ * pages also expire after a short, fixed time, which bounds how stale a product can get.
+ * L1 is published as the {@code cache.*} metrics of {@code product.l1}; {@code product.cache.hit.ratio},
+ * {@code product.cache.load} and {@code product.cache.invalidations} are tagged with the level,
+ * and database loads are timed as {@code product.cache.load} with {@code level=db}.
+ */
+@Component
+public class ProductCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCache.class);
+    static final String CACHE_NAME_PREFIX = "product.";
+    static final String HIT_RATIO_METRIC = "product.cache.hit.ratio";
+    private static final String LEVEL = "l1";
+
+    private final Cache<Long, ProductResponse> cache;
+    // Null unless product.cache.redis.enabled is on
+    private final ProductRedisCache sharedCache;
+    private final ProductListingCache listingCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String invalidationChannel;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter invalidations;
+    private final Timer databaseLoads;
+
+    @Autowired
+    public ProductCache(
+            @Nullable ProductRedisCache sharedCache,
+            @Nullable RedisMessageListenerContainer listenerContainer,
+            ProductListingCache listingCache,
+            ApplicationEventPublisher eventPublisher,
+            StringRedisTemplate stringRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.local.maximum-size:10000}") long maximumSize,
+            @Value("${product.cache.local.expire-after-write-seconds:60}") long expireAfterWriteSeconds,
+            @Value("${product.cache.invalidation-channel:product:invalidate}") String invalidationChannel
+    ) {
+        this.sharedCache = sharedCache;
+        this.listingCache = listingCache;
+        this.eventPublisher = eventPublisher;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        this.invalidations = invalidationCounter(meterRegistry, LEVEL);
+        this.databaseLoads = loadTimer(meterRegistry, "db");
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME_PREFIX + LEVEL);
+        Gauge.builder(HIT_RATIO_METRIC, cache, c -> c.stats().hitRate())
+                .description("Share of product lookups served from this cache level")
+                .tag("level", LEVEL)
+                .register(meterRegistry);
+
+        if (sharedCache != null && listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(invalidationChannel));
+        }
+        log.info("Product cache enabled (L1 maximum size {}, expiry {}s, Redis L2 {})",
+                maximumSize, expireAfterWriteSeconds, sharedCache != null ? "on" : "off");
+    }
+
+    // The loader reads the database on a miss in both levels; its exceptions reach the caller and nothing is cached
+    public ProductResponse get(Long productId, Function<Long, ProductResponse> loader) {
+        return cache.get(productId, id -> {
+            ProductResponse product = sharedCache != null ? sharedCache.get(id) : null;
+            if (product == null) {
+                product = databaseLoads.record(() -> loader.apply(id));
+                putShared(Map.of(id, product));
+            }
+            return product;
+        });
+    }
+
+    // Unknown products are left out; the loader gets only the ids missing from both levels
+    public Map<Long, ProductResponse> getAll(Set<Long> productIds, Function<Set<Long>, Map<Long, ProductResponse>> loader) {
+        return cache.getAll(productIds, ids -> {
+            Set<Long> missing = new HashSet<>();
+            ids.forEach(missing::add);
+            Map<Long, ProductResponse> products = new HashMap<>();
+            if (sharedCache != null) {
+                products.putAll(sharedCache.getAll(missing));
+                missing.removeAll(products.keySet());
+            }
+            if (!missing.isEmpty()) {
+                Map<Long, ProductResponse> loaded = databaseLoads.record(() -> loader.apply(missing));
+                putShared(loaded);
+                products.putAll(loaded);
+            }
+            return products;
+        });
+    }
+
+    // Called after a product is created, changed or deleted; drops it here, in Redis and in the other replicas
+    public void invalidate(Long productId) {
+        evictLocal(productId);
+        productChanged(productId);
+        if (sharedCache == null) {
+            return;
+        }
+        sharedCache.evict(productId);
+        try {
+            stringRedisTemplate.convertAndSend(invalidationChannel, instanceId + ":" + productId);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish invalidation of product {}: {}", productId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0) {
+            log.warn("Ignoring malformed product invalidation message: {}", body);
+            return;
+        }
+        // Our own writes have already been invalidated locally
+        if (!body.substring(0, separator).equals(instanceId)) {
+            try {
+                Long productId = Long.valueOf(body.substring(separator + 1));
+                evictLocal(productId);
+                productChanged(productId);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed product invalidation message: {}", body);
+            }
+        }
+    }
+
+    private void evictLocal(Long productId) {
+        if (cache.asMap().remove(productId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    // The in-memory catalog applies the change once the write has committed and then drops the
+    // listing pages again, so pages built from it in between do not outlive the change
+    private void productChanged(Long productId) {
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        listingCache.invalidateAll();
+    }
+
+    private void putShared(Map<Long, ProductResponse> products) {
+        if (sharedCache != null) {
+            sharedCache.putAll(products.values());
+        }
+    }
+
+    static Counter invalidationCounter(MeterRegistry meterRegistry, String level) {
+        return Counter.builder("product.cache.invalidations")
+                .description("Cached products dropped because the product was changed or deleted")
+                .tag("level", level)
+                .register(meterRegistry);
+    }
+
+    static Timer loadTimer(MeterRegistry meterRegistry, String level) {
+        return Timer.builder("product.cache.load")
+                .description("Time to fetch products that missed the cache level above")
+                .tag("level", level)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
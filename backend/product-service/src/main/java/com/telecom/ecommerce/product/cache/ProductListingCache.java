@@ -0,0 +1,60 @@
+package com.telecom.ecommerce.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serialized catalog listing pages, keyed by the normalized filters, sort and page. A hit is
+ * written to the response as is, without touching the database or Jackson.
+ * Every product write bumps the catalog version, which is part of the key, so pages built before
+ * the write are never served again; a page still being built while the write happens is stored
+ * under the old version and is just as unreachable. Old entries age out by size and expiry.
+ * Published as the {@code cache.*} metrics of {@code product.listing}.
+ */
+@Component
+public class ProductListingCache {
+
+    private static final String CACHE_NAME = "product.listing";
+
+    private final Cache<List<Object>, byte[]> cache;
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    @Autowired
+    public ProductListingCache(
+            MeterRegistry meterRegistry,
+            @Value("${product.listing-cache.maximum-size:1000}") long maximumSize,
+            @Value("${product.listing-cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    // The query parts must already be normalized, so equivalent requests share one entry
+    public byte[] get(List<Object> query, Supplier<byte[]> loader) {
+        List<Object> key = new ArrayList<>(query.size() + 1);
+        // Read before loading, so a write during the load leaves the page under the old version
+        key.add(catalogVersion.get());
+        key.addAll(query);
+        return cache.get(key, k -> loader.get());
+    }
+
+    // Called on every product write, here or in another replica
+    public void invalidateAll() {
+        catalogVersion.incrementAndGet();
+    }
+}
@@ -0,0 +1,160 @@
+package com.telecom.ecommerce.product.cache;
+
+import com.telecom.ecommerce.product.config.RedisConfig;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Second cache level, shared by all product-service replicas: each product is stored as JSON under
+ * {@code product:<id>} with a fixed TTL, enabled with {@code product.cache.redis.enabled}.
+ * Redis errors are logged and treated as misses, so an unavailable Redis only costs database reads.
+ * Published as {@code cache.gets} of {@code product.l2}, {@code product.cache.hit.ratio},
+ * {@code product.cache.load} and {@code product.cache.invalidations}, all tagged {@code level=l2}.
+ * Entries dropped by the TTL or by Redis eviction are reported by Redis itself
+ * ({@code expired_keys} and {@code evicted_keys} in {@code INFO stats}).
+ */
+@Component
+@ConditionalOnProperty(name = "product.cache.redis.enabled", havingValue = "true")
+public class ProductRedisCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductRedisCache.class);
+    static final String KEY_PREFIX = "product:";
+    static final String LEVEL = "l2";
+
+    private final RedisTemplate<String, ProductResponse> redisTemplate;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer lookups;
+
+    @Autowired
+    public ProductRedisCache(
+            @Qualifier(RedisConfig.PRODUCT_REDIS_TEMPLATE) RedisTemplate<String, ProductResponse> productRedisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${product.cache.redis.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.redisTemplate = productRedisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.hits = getCounter(meterRegistry, "hit");
+        this.misses = getCounter(meterRegistry, "miss");
+        this.invalidations = ProductCache.invalidationCounter(meterRegistry, LEVEL);
+        this.lookups = ProductCache.loadTimer(meterRegistry, LEVEL);
+        Gauge.builder(ProductCache.HIT_RATIO_METRIC, this, ProductRedisCache::hitRatio)
+                .description("Share of product lookups served from this cache level")
+                .tag("level", LEVEL)
+                .register(meterRegistry);
+    }
+
+    // Null on a miss or when Redis cannot be reached
+    public ProductResponse get(Long productId) {
+        ProductResponse product;
+        try {
+            product = lookups.record(() -> redisTemplate.opsForValue().get(key(productId)));
+        } catch (RuntimeException e) {
+            log.warn("Could not read product {} from Redis: {}", productId, e.getMessage());
+            product = null;
+        }
+        (product != null ? hits : misses).increment();
+        return product;
+    }
+
+    // Returns the products found; missing ones are left out
+    public Map<Long, ProductResponse> getAll(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        List<ProductResponse> values;
+        try {
+            values = lookups.record(() -> redisTemplate.opsForValue()
+                    .multiGet(ids.stream().map(ProductRedisCache::key).collect(Collectors.toList())));
+        } catch (RuntimeException e) {
+            log.warn("Could not read {} products from Redis: {}", ids.size(), e.getMessage());
+            values = null;
+        }
+        if (values == null) {
+            misses.increment(ids.size());
+            return Collections.emptyMap();
+        }
+
+        Map<Long, ProductResponse> found = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (values.get(i) != null) {
+                found.put(ids.get(i), values.get(i));
+            }
+        }
+        hits.increment(found.size());
+        misses.increment(ids.size() - found.size());
+        return found;
+    }
+
+    public void putAll(Collection<ProductResponse> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        try {
+            // One round trip for the whole batch
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, ProductResponse> productOperations = (RedisOperations<String, ProductResponse>) operations;
+                    for (ProductResponse product : products) {
+                        productOperations.opsForValue().set(key(product.getId()), product, ttl);
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} products to Redis: {}", products.size(), e.getMessage());
+        }
+    }
+
+    public void evict(Long productId) {
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.delete(key(productId)))) {
+                invalidations.increment();
+            }
+        } catch (RuntimeException e) {
+            // The entry stays until its TTL runs out
+            log.warn("Could not evict product {} from Redis: {}", productId, e.getMessage());
+        }
+    }
+
+    private double hitRatio() {
+        double lookupCount = hits.count() + misses.count();
+        return lookupCount > 0 ? hits.count() / lookupCount : 0;
+    }
+
+    private Counter getCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.gets")
+                .description("Product lookups in the shared Redis cache")
+                .tag("cache", ProductCache.CACHE_NAME_PREFIX + LEVEL)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String key(Long productId) {
+        return KEY_PREFIX + productId;
+    }
+}
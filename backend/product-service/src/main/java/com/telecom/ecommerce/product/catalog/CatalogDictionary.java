@@ -0,0 +1,52 @@
+package com.telecom.ecommerce.product.catalog;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of one string column, with a bitmap of the live rows for each value.
+ * Null values get no code and appear in no bitmap, so they never match an equality filter, as in SQL.
+ */
+final class CatalogDictionary {
+
+    static final int NO_VALUE = -1;
+    private static final BitSet NO_ROWS = new BitSet();
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<BitSet> rowsByCode = new ArrayList<>();
+
+    int encode(String value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        return codes.computeIfAbsent(value, v -> {
+            rowsByCode.add(new BitSet());
+            return rowsByCode.size() - 1;
+        });
+    }
+
+    // Read-only; empty for values no product has
+    BitSet rowsWith(String value) {
+        Integer code = codes.get(value);
+        return code != null ? rowsByCode.get(code) : NO_ROWS;
+    }
+
+    void add(int code, int row) {
+        if (code != NO_VALUE) {
+            rowsByCode.get(code).set(row);
+        }
+    }
+
+    void remove(int code, int row) {
+        if (code != NO_VALUE) {
+            rowsByCode.get(code).clear(row);
+        }
+    }
+
+    int size() {
+        return codes.size();
+    }
+}
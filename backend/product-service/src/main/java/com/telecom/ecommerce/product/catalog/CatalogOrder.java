@@ -0,0 +1,161 @@
+package com.telecom.ecommerce.product.catalog;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Live catalog rows sorted by one column, ties broken by product id, so every row has exactly one
+ * position. Single rows are inserted and removed in place, which moves at most the whole array once.
+ */
+final class CatalogOrder {
+
+    // Small runs are cheaper to insertion-sort than to merge
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private final IntToLongFunction key;
+    private final IntToLongFunction id;
+    private int[] rows = new int[16];
+    private int size;
+
+    CatalogOrder(IntToLongFunction key, IntToLongFunction id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int row(int position) {
+        return rows[position];
+    }
+
+    // For bulk loads; call sort() once all rows are in
+    void append(int row) {
+        ensureCapacity(size + 1);
+        rows[size++] = row;
+    }
+
+    void sort() {
+        sort(rows, size);
+    }
+
+    void insert(int row) {
+        ensureCapacity(size + 1);
+        int position = -(search(row) + 1);
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        rows[position] = row;
+        size++;
+    }
+
+    void remove(int row) {
+        int position = search(row);
+        System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+        size--;
+    }
+
+    // Number of rows whose key is at most maxKey, i.e. the position of the first row above it
+    int countUpTo(long maxKey) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (key.applyAsLong(rows[middle]) <= maxKey) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Stable merge sort of any row array into this order
+    void sort(int[] rowsToSort, int length) {
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = key.applyAsLong(rowsToSort[i]);
+        }
+        sort(rowsToSort, keys, length);
+    }
+
+    // Same, with keys[i] the key of rowsToSort[i] as read by the caller. Ids are only read for ties:
+    // going through the columns misses the CPU cache on nearly every comparison once the catalog outgrows it
+    void sort(int[] rowsToSort, long[] keys, int length) {
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = i;
+        }
+        mergeSort(positions, new int[length], rowsToSort, keys, 0, length);
+        int[] sorted = new int[length];
+        for (int i = 0; i < length; i++) {
+            sorted[i] = rowsToSort[positions[i]];
+        }
+        System.arraycopy(sorted, 0, rowsToSort, 0, length);
+    }
+
+    private void mergeSort(int[] a, int[] buffer, int[] rowsToSort, long[] keys, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int position = a[i];
+                int j = i - 1;
+                while (j >= from && comparePositions(a[j], position, rowsToSort, keys) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = position;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(a, buffer, rowsToSort, keys, from, middle);
+        mergeSort(a, buffer, rowsToSort, keys, middle, to);
+        if (comparePositions(a[middle - 1], a[middle], rowsToSort, keys) <= 0) {
+            return;
+        }
+        System.arraycopy(a, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparePositions(buffer[left], buffer[right], rowsToSort, keys) <= 0)) {
+                a[i] = buffer[left++];
+            } else {
+                a[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int comparePositions(int positionA, int positionB, int[] rowsToSort, long[] keys) {
+        int comparison = Long.compare(keys[positionA], keys[positionB]);
+        return comparison != 0 ? comparison
+                : Long.compare(id.applyAsLong(rowsToSort[positionA]), id.applyAsLong(rowsToSort[positionB]));
+    }
+
+    // Position of the row if present, otherwise -(insertion point) - 1, as in Arrays.binarySearch
+    private int search(int row) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(rows[middle], row);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compare(int rowA, int rowB) {
+        int comparison = Long.compare(key.applyAsLong(rowA), key.applyAsLong(rowB));
+        return comparison != 0 ? comparison : Long.compare(id.applyAsLong(rowA), id.applyAsLong(rowB));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(capacity, rows.length * 2));
+        }
+    }
+}
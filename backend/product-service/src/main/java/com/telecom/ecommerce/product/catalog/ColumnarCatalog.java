@@ -0,0 +1,310 @@
+package com.telecom.ecommerce.product.catalog;
+
+import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog as primitive columns, one row per product version: prices in cents and creation times
+ * in epoch millis, type, data allowance and brand dictionary-encoded with a bitmap of rows per value,
+ * and the live rows kept sorted by price, creation time and id.
+ * A changed product gets a new row and its old row becomes a tombstone, so nothing is rewritten in
+ * place; once tombstones outnumber live rows the catalog should be replaced by {@link #compacted()}.
+ * Not thread-safe: {@link InMemoryCatalog} guards it with a read-write lock.
+ */
+final class ColumnarCatalog {
+
+    enum SortColumn { ID, PRICE, CREATED_AT }
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    // Below one match in this many rows, sorting the matches beats walking the sort order
+    private static final int SELECTIVE_QUERY_RATIO = 16;
+
+    private int rowCount;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private long[] createdAtMillis = new long[INITIAL_CAPACITY];
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+    private int[] dataAllowanceCodes = new int[INITIAL_CAPACITY];
+    private int[] brandCodes = new int[INITIAL_CAPACITY];
+    // Null for tombstones
+    private ProductResponse[] products = new ProductResponse[INITIAL_CAPACITY];
+
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final CatalogDictionary types = new CatalogDictionary();
+    private final CatalogDictionary dataAllowances = new CatalogDictionary();
+    private final CatalogDictionary brands = new CatalogDictionary();
+    private final CatalogOrder byId = new CatalogOrder(row -> ids[row], row -> ids[row]);
+    private final CatalogOrder byPrice = new CatalogOrder(row -> priceCents[row], row -> ids[row]);
+    private final CatalogOrder byCreatedAt = new CatalogOrder(row -> createdAtMillis[row], row -> ids[row]);
+
+    // Bulk load: the rows are only in the sort orders after finishLoad()
+    void load(ProductResponse product, LocalDateTime createdAt) {
+        int row = addRow(product, toMillis(createdAt));
+        byId.append(row);
+        byPrice.append(row);
+        byCreatedAt.append(row);
+    }
+
+    void finishLoad() {
+        byId.sort();
+        byPrice.sort();
+        byCreatedAt.sort();
+    }
+
+    // Adds the product, replacing its current row if it has one
+    void put(ProductResponse product, LocalDateTime createdAt) {
+        remove(product.getId());
+        int row = addRow(product, toMillis(createdAt));
+        byId.insert(row);
+        byPrice.insert(row);
+        byCreatedAt.insert(row);
+    }
+
+    void remove(Long productId) {
+        Integer row = rowsById.remove(productId);
+        if (row == null) {
+            return;
+        }
+        // The orders find the row by its column values, so those stay as they are
+        byId.remove(row);
+        byPrice.remove(row);
+        byCreatedAt.remove(row);
+        types.remove(typeCodes[row], row);
+        dataAllowances.remove(dataAllowanceCodes[row], row);
+        brands.remove(brandCodes[row], row);
+        products[row] = null;
+    }
+
+    int size() {
+        return rowsById.size();
+    }
+
+    boolean needsCompaction() {
+        int tombstones = rowCount - size();
+        return tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones > size();
+    }
+
+    ColumnarCatalog compacted() {
+        ColumnarCatalog catalog = new ColumnarCatalog();
+        for (int row = 0; row < rowCount; row++) {
+            if (products[row] != null) {
+                int newRow = catalog.addRow(products[row], createdAtMillis[row]);
+                catalog.byId.append(newRow);
+                catalog.byPrice.append(newRow);
+                catalog.byCreatedAt.append(newRow);
+            }
+        }
+        catalog.finishLoad();
+        return catalog;
+    }
+
+    // Same results as the JPA query for the same filters, sort and page; ties are ordered by id
+    ProductPage query(String type, BigDecimal maxPrice, String dataAllowance, String brand,
+                      SortColumn sortColumn, boolean descending, int page, int size) {
+        BitSet matches = equalityMatches(type, dataAllowance, brand);
+        long maxCents = maxPrice != null ? maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue() : Long.MAX_VALUE;
+        CatalogOrder order = order(sortColumn);
+        // In the price order the rows above the limit are at the end, so they are never visited
+        int end = sortColumn == SortColumn.PRICE ? byPrice.countUpTo(maxCents) : order.size();
+        long scanMaxCents = sortColumn == SortColumn.PRICE ? Long.MAX_VALUE : maxCents;
+        long offset = (long) page * size;
+
+        int candidates = matches != null ? matches.cardinality() : end;
+        long total;
+        List<ProductResponse> content;
+        if (matches == null && scanMaxCents == Long.MAX_VALUE) {
+            // Every row in the range matches, so the page is a plain slice of the order
+            total = end;
+            content = slice(order, end, descending, offset, size);
+        } else if (matches == null) {
+            // Only a price limit, so the matches are the start of the price order
+            total = byPrice.countUpTo(maxCents);
+            content = total * SELECTIVE_QUERY_RATIO < end
+                    ? sortedPage(order, priceOrderPrefix((int) total), descending, offset, size)
+                    : scan(order, end, descending, null, maxCents, offset, size);
+        } else if ((long) candidates * SELECTIVE_QUERY_RATIO < end) {
+            // Few candidates: collect the matches in one pass over the bitmap and sort just those
+            int[] rows = new int[candidates];
+            long[] keys = new long[candidates];
+            int count = collectMatches(matches, maxCents, keyColumn(sortColumn), rows, keys);
+            total = count;
+            order.sort(rows, keys, count);
+            content = page(rows, count, descending, offset, size);
+        } else {
+            total = maxCents == Long.MAX_VALUE ? candidates : countMatches(matches, maxCents);
+            content = scan(order, end, descending, matches, scanMaxCents, offset, size);
+        }
+
+        ProductPage productPage = new ProductPage();
+        productPage.setProducts(content);
+        productPage.setCurrentPage(page);
+        productPage.setTotalPages((int) ((total + size - 1) / size));
+        productPage.setTotalElements(total);
+        return productPage;
+    }
+
+    // Null means no equality filter, i.e. every live row; otherwise read-only unless it is a copy
+    private BitSet equalityMatches(String type, String dataAllowance, String brand) {
+        List<BitSet> bitmaps = new ArrayList<>(3);
+        if (type != null) {
+            bitmaps.add(types.rowsWith(type));
+        }
+        if (dataAllowance != null) {
+            bitmaps.add(dataAllowances.rowsWith(dataAllowance));
+        }
+        if (brand != null) {
+            bitmaps.add(brands.rowsWith(brand));
+        }
+        if (bitmaps.isEmpty()) {
+            return null;
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        BitSet matches = (BitSet) bitmaps.get(0).clone();
+        for (int i = 1; i < bitmaps.size(); i++) {
+            matches.and(bitmaps.get(i));
+        }
+        return matches;
+    }
+
+    private long countMatches(BitSet matches, long maxCents) {
+        long count = 0;
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            if (priceCents[row] <= maxCents) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Fills rows and the sort keys of those rows, reading each matching row's price and key in one visit
+    private int collectMatches(BitSet matches, long maxCents, long[] keyColumn, int[] rows, long[] keys) {
+        int count = 0;
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            if (priceCents[row] <= maxCents) {
+                rows[count] = row;
+                keys[count++] = keyColumn[row];
+            }
+        }
+        return count;
+    }
+
+    private int[] priceOrderPrefix(int count) {
+        int[] rows = new int[count];
+        for (int position = 0; position < count; position++) {
+            rows[position] = byPrice.row(position);
+        }
+        return rows;
+    }
+
+    private List<ProductResponse> sortedPage(CatalogOrder order, int[] rows, boolean descending, long offset, int size) {
+        order.sort(rows, rows.length);
+        return page(rows, rows.length, descending, offset, size);
+    }
+
+    // One page of rows that are already in the requested order
+    private List<ProductResponse> page(int[] rows, int count, boolean descending, long offset, int size) {
+        List<ProductResponse> content = new ArrayList<>(size);
+        for (long i = offset; i < count && content.size() < size; i++) {
+            content.add(products[rows[descending ? count - 1 - (int) i : (int) i]]);
+        }
+        return content;
+    }
+
+    private List<ProductResponse> scan(CatalogOrder order, int end, boolean descending, BitSet matches,
+                                       long maxCents, long offset, int size) {
+        List<ProductResponse> content = new ArrayList<>(size);
+        long skipped = 0;
+        for (int i = 0; i < end && content.size() < size; i++) {
+            int row = order.row(descending ? end - 1 - i : i);
+            if ((matches == null || matches.get(row)) && priceCents[row] <= maxCents && skipped++ >= offset) {
+                content.add(products[row]);
+            }
+        }
+        return content;
+    }
+
+    private List<ProductResponse> slice(CatalogOrder order, int end, boolean descending, long offset, int size) {
+        if (offset >= end) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(size, end - offset);
+        List<ProductResponse> content = new ArrayList<>(count);
+        for (int i = (int) offset; i < offset + count; i++) {
+            content.add(products[order.row(descending ? end - 1 - i : i)]);
+        }
+        return content;
+    }
+
+    private CatalogOrder order(SortColumn sortColumn) {
+        switch (sortColumn) {
+            case PRICE:
+                return byPrice;
+            case CREATED_AT:
+                return byCreatedAt;
+            default:
+                return byId;
+        }
+    }
+
+    private long[] keyColumn(SortColumn sortColumn) {
+        switch (sortColumn) {
+            case PRICE:
+                return priceCents;
+            case CREATED_AT:
+                return createdAtMillis;
+            default:
+                return ids;
+        }
+    }
+
+    private int addRow(ProductResponse product, long createdAt) {
+        ensureCapacity(rowCount + 1);
+        int row = rowCount++;
+        ids[row] = product.getId();
+        priceCents[row] = product.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        createdAtMillis[row] = createdAt;
+        typeCodes[row] = types.encode(product.getType());
+        dataAllowanceCodes[row] = dataAllowances.encode(product.getDataAllowance());
+        brandCodes[row] = brands.encode(product.getBrand());
+        products[row] = product;
+        types.add(typeCodes[row], row);
+        dataAllowances.add(dataAllowanceCodes[row], row);
+        brands.add(brandCodes[row], row);
+        rowsById.put(product.getId(), row);
+        return row;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        priceCents = Arrays.copyOf(priceCents, newCapacity);
+        createdAtMillis = Arrays.copyOf(createdAtMillis, newCapacity);
+        typeCodes = Arrays.copyOf(typeCodes, newCapacity);
+        dataAllowanceCodes = Arrays.copyOf(dataAllowanceCodes, newCapacity);
+        brandCodes = Arrays.copyOf(brandCodes, newCapacity);
+        products = Arrays.copyOf(products, newCapacity);
+    }
+
+    // Products created before creation times were recorded sort first
+    private static long toMillis(LocalDateTime createdAt) {
+        return createdAt != null ? createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() : Long.MIN_VALUE;
+    }
+}
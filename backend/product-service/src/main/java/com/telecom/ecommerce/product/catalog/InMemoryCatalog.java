@@ -0,0 +1,159 @@
+package com.telecom.ecommerce.product.catalog;
+
+import com.telecom.ecommerce.product.cache.ProductListingCache;
+import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.event.ProductChangedEvent;
+import com.telecom.ecommerce.product.model.Product;
+import com.telecom.ecommerce.product.repository.ProductRepository;
+import com.telecom.ecommerce.product.service.ProductMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional in-memory engine for filtered catalog listings, enabled with {@code product.catalog.in-memory.enabled}.
+ * The whole catalog is loaded into a {@link ColumnarCatalog} once the application is ready and kept
+ * current from {@link ProductChangedEvent}s, each of which reloads one product from the database once
+ * the transaction that changed it has committed; changes made by other replicas arrive outside any transaction.
+ * Until the first load has finished, {@link #isReady()} is false and listings keep using the JPA query.
+ * Holds every product in the heap, roughly 0.5 KB per product with typical descriptions.
+ * The catalog size is published as {@code product.catalog.products}.
+ */
+@Component
+@ConditionalOnProperty(name = "product.catalog.in-memory.enabled", havingValue = "true")
+public class InMemoryCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductListingCache listingCache;
+    private final int loadBatchSize;
+    // Held by queries and for the short in-memory part of each change; changes themselves are
+    // serialized on this object's monitor, so a product read from the database is never applied out of order
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Products changed while the first load was running, replayed before it is published
+    private final Set<Long> changedDuringLoad = new HashSet<>();
+    private volatile ColumnarCatalog catalog;
+
+    @Autowired
+    public InMemoryCatalog(
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            ProductListingCache listingCache,
+            MeterRegistry meterRegistry,
+            @Value("${product.catalog.in-memory.load-batch-size:10000}") int loadBatchSize
+    ) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.listingCache = listingCache;
+        this.loadBatchSize = loadBatchSize;
+        Gauge.builder("product.catalog.products", this, InMemoryCatalog::size)
+                .description("Products held by the in-memory catalog")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        ColumnarCatalog loaded = new ColumnarCatalog();
+        Pageable pageable = PageRequest.of(0, loadBatchSize, Sort.by("id"));
+        Slice<Product> slice;
+        do {
+            slice = productRepository.findAllBy(pageable);
+            for (Product product : slice) {
+                loaded.load(productMapper.mapToResponse(product), product.getCreatedAt());
+            }
+            pageable = slice.nextPageable();
+        } while (slice.hasNext());
+        loaded.finishLoad();
+
+        synchronized (this) {
+            changedDuringLoad.forEach(productId -> reload(loaded, productId));
+            changedDuringLoad.clear();
+            catalog = loaded;
+        }
+        log.info("In-memory catalog loaded {} products in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return catalog != null;
+    }
+
+    public ProductPage query(String type, BigDecimal maxPrice, String dataAllowance, String brand, Pageable pageable) {
+        // Same default as the listing endpoints when the caller did not ask for an order
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        lock.readLock().lock();
+        try {
+            return catalog.query(type, maxPrice, dataAllowance, brand, sortColumn(order.getProperty()),
+                    order.isDescending(), pageable.getPageNumber(), pageable.getPageSize());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Before the commit the reload would still read the old row, or miss a new product
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (catalog == null) {
+            changedDuringLoad.add(event.getProductId());
+            return;
+        }
+        reload(catalog, event.getProductId());
+        if (catalog.needsCompaction()) {
+            // Only changes modify the catalog, so it can be copied without blocking queries
+            catalog = catalog.compacted();
+        }
+        // Pages built from the catalog between the write and this reload are stale
+        listingCache.invalidateAll();
+    }
+
+    private void reload(ColumnarCatalog target, Long productId) {
+        Product product = productRepository.findById(productId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (product != null) {
+                target.put(productMapper.mapToResponse(product), product.getCreatedAt());
+            } else {
+                target.remove(productId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double size() {
+        ColumnarCatalog current = catalog;
+        return current != null ? current.size() : 0;
+    }
+
+    private static ColumnarCatalog.SortColumn sortColumn(String property) {
+        switch (property) {
+            case "price":
+                return ColumnarCatalog.SortColumn.PRICE;
+            case "createdAt":
+                return ColumnarCatalog.SortColumn.CREATED_AT;
+            default:
+                return ColumnarCatalog.SortColumn.ID;
+        }
+    }
+}
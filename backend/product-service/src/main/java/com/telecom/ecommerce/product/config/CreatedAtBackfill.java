@@ -0,0 +1,50 @@
+package com.telecom.ecommerce.product.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Makes products.created_at non-null on databases created before the column was declared so.
+ * Schema update adds the constraint to new tables only: existing rows without a creation time get
+ * their last update time (or now), then the constraint is added. Runs once the schema is up to
+ * date and before the server accepts requests, and does nothing when the column is already non-null.
+ */
+@Component
+public class CreatedAtBackfill implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CreatedAtBackfill.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The entity manager factory is only taken so that the schema update has run first
+    @Autowired
+    public CreatedAtBackfill(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!isNullable()) {
+            return;
+        }
+        int backfilled = jdbcTemplate.update(
+                "UPDATE products SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP) WHERE created_at IS NULL");
+        jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN created_at SET NOT NULL");
+        log.info("Made products.created_at non-null, backfilled {} products", backfilled);
+    }
+
+    private boolean isNullable() {
+        // Unquoted names are stored in lower case by PostgreSQL and in upper case by H2
+        return jdbcTemplate.queryForList(
+                "SELECT is_nullable FROM information_schema.columns "
+                        + "WHERE LOWER(table_name) = 'products' AND LOWER(column_name) = 'created_at'",
+                String.class
+        ).contains("YES");
+    }
+}
@@ -0,0 +1,39 @@
+package com.telecom.ecommerce.product.config;
+
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Redis beans for the shared product cache. Only created with {@code product.cache.redis.enabled=true};
+ * otherwise product-service never opens a Redis connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.cache.redis.enabled", havingValue = "true")
+public class RedisConfig {
+
+    public static final String PRODUCT_REDIS_TEMPLATE = "productRedisTemplate";
+
+    @Bean(name = PRODUCT_REDIS_TEMPLATE)
+    public RedisTemplate<String, ProductResponse> productRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, ProductResponse> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(ProductResponse.class));
+        return template;
+    }
+
+    // Carries product invalidations between product-service replicas
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
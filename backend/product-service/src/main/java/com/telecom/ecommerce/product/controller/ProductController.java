@@ -1,6 +1,6 @@
 package com.telecom.ecommerce.product.controller;
 
-import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.dto.ProductCursorPage;
 import com.telecom.ecommerce.product.dto.ProductRequest;
 import com.telecom.ecommerce.product.dto.ProductResponse;
 import com.telecom.ecommerce.product.service.ProductService;
@@ -8,11 +8,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
@@ -34,16 +36,25 @@ public class ProductController {
         return new ResponseEntity<>(productResponse, HttpStatus.CREATED);
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        log.info("Received request to get {} products by ID", ids.size());
+        List<ProductResponse> productResponses = productService.getProductsByIds(ids);
+        log.info("Returning {} products", productResponses.size());
+        return ResponseEntity.ok(productResponses);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        log.info("Received request to get product with ID: {}", id);
+        // Served from the product cache on almost every call, so logging stays at debug
+        log.debug("Received request to get product with ID: {}", id);
         ProductResponse productResponse = productService.getProductById(id);
-        log.info("Returning product: {}", productResponse);
+        log.debug("Returning product: {}", productResponse);
         return ResponseEntity.ok(productResponse);
     }
 
-    @GetMapping
-    public ResponseEntity<ProductPage> getProducts(
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getProducts(
             @RequestParam(required = false) String type,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String dataAllowance,
@@ -55,21 +66,35 @@ public class ProductController {
         log.info("Received request to get products with filters: type={}, maxPrice={}, dataAllowance={}, brand={}, page={}, size={}, sort={}",
                 type, maxPrice, dataAllowance, brand, page, size, sort);
         
-        ProductPage productPage;
-        if (type == null && maxPrice == null && dataAllowance == null && brand == null) {
-            // No filters applied, get all products
-            productPage = productService.getAllProducts(page, size, sort);
-        } else {
-            // Apply filters
-            productPage = productService.getProductsByFilters(
-                    type, maxPrice, dataAllowance, brand, page, size, sort
-            );
-        }
-        
-        log.info("Returning product page with {} products, page {}/{}, total elements: {}",
-                productPage.getProducts().size(), productPage.getCurrentPage() + 1, 
-                productPage.getTotalPages(), productPage.getTotalElements());
+        // Already serialized ProductPage JSON, written out without going through Jackson again
+        byte[] productPage = productService.getProductListing(
+                type, maxPrice, dataAllowance, brand, page, size, sort
+        );
         
+        log.debug("Returning product page of {} bytes", productPage.length);
+        return ResponseEntity.ok(productPage);
+    }
+
+    // Keyset mode, chosen by the cursor parameter: an empty cursor starts at the first page and each page
+    // returns the cursor of the next one. Deep pages cost the same as the first, and the total is only
+    // counted on request
+    @GetMapping(params = "cursor")
+    public ResponseEntity<ProductCursorPage> getProductsAfter(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String dataAllowance,
+            @RequestParam(required = false) String brand,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "popularity") String sort,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        log.info("Received request to get products after cursor: type={}, maxPrice={}, dataAllowance={}, brand={}, size={}, sort={}",
+                type, maxPrice, dataAllowance, brand, size, sort);
+        ProductCursorPage productPage = productService.getProductsAfter(
+                type, maxPrice, dataAllowance, brand, cursor, size, sort, includeTotal
+        );
+        log.debug("Returning {} products", productPage.getProducts().size());
         return ResponseEntity.ok(productPage);
     }
 
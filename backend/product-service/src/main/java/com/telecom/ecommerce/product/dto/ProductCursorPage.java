@@ -0,0 +1,49 @@
+package com.telecom.ecommerce.product.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back as the cursor parameter to get the next page
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductCursorPage implements Serializable {
+    private List<ProductResponse> products;
+    // Null on the last page
+    private String nextCursor;
+    // Only counted when the client asks for it
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    // Manual getter methods in case Lombok isn't working
+    public List<ProductResponse> getProducts() {
+        return products;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    // Manual setter methods in case Lombok isn't working
+    public void setProducts(List<ProductResponse> products) {
+        this.products = products;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
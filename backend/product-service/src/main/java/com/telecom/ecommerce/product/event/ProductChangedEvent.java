@@ -0,0 +1,19 @@
+package com.telecom.ecommerce.product.event;
+
+/**
+ * Published in-process whenever a product is created, changed or deleted, by this replica or,
+ * with Redis enabled, by another one. Listeners reload the product themselves, since the event
+ * only carries its id.
+ */
+public class ProductChangedEvent {
+
+    private final Long productId;
+
+    public ProductChangedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
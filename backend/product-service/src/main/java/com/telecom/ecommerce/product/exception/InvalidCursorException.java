@@ -0,0 +1,9 @@
+package com.telecom.ecommerce.product.exception;
+
+// Raised when a listing cursor cannot be decoded or was issued for a different sort order
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
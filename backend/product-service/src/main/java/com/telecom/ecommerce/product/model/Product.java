@@ -13,7 +13,11 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+// Sorted listings read these in order; the id makes each position unique for keyset pagination
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,7 +49,8 @@ public class Product {
 
     private String brand; // For devices: 'Apple', 'Samsung', etc.
 
-    @Column(name = "created_at")
+    // Keyset pages sort on it, so it must never be null; rows from before the constraint are backfilled at startup
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
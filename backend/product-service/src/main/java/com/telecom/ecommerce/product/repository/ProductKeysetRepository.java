@@ -0,0 +1,27 @@
+package com.telecom.ecommerce.product.repository;
+
+import com.telecom.ecommerce.product.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Keyset (seek) pagination: pages start after the last product of the previous page instead of at an offset
+public interface ProductKeysetRepository {
+
+    // Products ordered by the sort property and then id, both in the order's direction, starting right
+    // after (afterKey, afterId), or at the start when afterId is null
+    List<Product> findByFiltersAfter(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            Sort.Order order,
+            @Nullable Object afterKey,
+            @Nullable Long afterId,
+            int limit
+    );
+
+    long countByFilters(String type, BigDecimal maxPrice, String dataAllowance, String brand);
+}
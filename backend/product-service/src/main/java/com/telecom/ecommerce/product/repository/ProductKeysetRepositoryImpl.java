@@ -0,0 +1,128 @@
+package com.telecom.ecommerce.product.repository;
+
+import com.telecom.ecommerce.product.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    private static final String AFTER_KEY = "afterKey";
+    private static final String AFTER_ID = "afterId";
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ProductKeysetRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Product> findByFiltersAfter(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            Sort.Order order,
+            Object afterKey,
+            Long afterId,
+            int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> product = query.from(Product.class);
+        Path<Comparable<Object>> key = product.get(order.getProperty());
+        Path<Long> id = product.get("id");
+        boolean descending = order.isDescending();
+
+        Map<String, Object> parameters = new HashMap<>();
+        List<Predicate> predicates = filters(cb, product, type, maxPrice, dataAllowance, brand, parameters);
+        if (afterId != null) {
+            if (order.getProperty().equals("id")) {
+                predicates.add(idAfter(cb, id, descending));
+            } else {
+                predicates.add(after(cb, key, id, descending));
+                parameters.put(AFTER_KEY, afterKey);
+            }
+            parameters.put(AFTER_ID, afterId);
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        if (descending) {
+            query.orderBy(cb.desc(key), cb.desc(id));
+        } else {
+            query.orderBy(cb.asc(key), cb.asc(id));
+        }
+        TypedQuery<Product> typedQuery = entityManager.createQuery(query).setMaxResults(limit);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public long countByFilters(String type, BigDecimal maxPrice, String dataAllowance, String brand) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        Map<String, Object> parameters = new HashMap<>();
+        query.select(cb.count(product))
+                .where(filters(cb, product, type, maxPrice, dataAllowance, brand, parameters).toArray(new Predicate[0]));
+        TypedQuery<Long> typedQuery = entityManager.createQuery(query);
+        parameters.forEach(typedQuery::setParameter);
+        return typedQuery.getSingleResult();
+    }
+
+    // Only the filters that are set, so the database sees a plain conjunction it can match to an index.
+    // Values are bound as parameters; Hibernate would otherwise inline numbers and every page would be a new statement
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<Product> product, String type, BigDecimal maxPrice,
+                                           String dataAllowance, String brand, Map<String, Object> parameters) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (type != null) {
+            predicates.add(cb.equal(product.get("type"), cb.parameter(String.class, "type")));
+            parameters.put("type", type);
+        }
+        if (maxPrice != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), cb.parameter(BigDecimal.class, "maxPrice")));
+            parameters.put("maxPrice", maxPrice);
+        }
+        if (dataAllowance != null) {
+            predicates.add(cb.equal(product.get("dataAllowance"), cb.parameter(String.class, "dataAllowance")));
+            parameters.put("dataAllowance", dataAllowance);
+        }
+        if (brand != null) {
+            predicates.add(cb.equal(product.get("brand"), cb.parameter(String.class, "brand")));
+            parameters.put("brand", brand);
+        }
+        return predicates;
+    }
+
+    // (key, id) strictly after the cursor, written as key >= k AND (key > k OR id > i) so the leading
+    // range on the key can use the (key, id) index
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Long> id, boolean descending) {
+        @SuppressWarnings("unchecked")
+        Class<Comparable<Object>> keyType = (Class<Comparable<Object>>) key.getJavaType();
+        ParameterExpression<Comparable<Object>> value = cb.parameter(keyType, AFTER_KEY);
+        ParameterExpression<Long> afterId = cb.parameter(Long.class, AFTER_ID);
+        Predicate range = descending ? cb.lessThanOrEqualTo(key, value) : cb.greaterThanOrEqualTo(key, value);
+        Predicate past = descending
+                ? cb.or(cb.lessThan(key, value), cb.lessThan(id, afterId))
+                : cb.or(cb.greaterThan(key, value), cb.greaterThan(id, afterId));
+        return cb.and(range, past);
+    }
+
+    private static Predicate idAfter(CriteriaBuilder cb, Path<Long> id, boolean descending) {
+        ParameterExpression<Long> afterId = cb.parameter(Long.class, AFTER_ID);
+        return descending ? cb.lessThan(id, afterId) : cb.greaterThan(id, afterId);
+    }
+}
@@ -3,6 +3,7 @@ package com.telecom.ecommerce.product.repository;
 import com.telecom.ecommerce.product.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,7 +12,10 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductKeysetRepository {
+
+    // Like findAll, but without the count query, for reading the whole catalog in batches
+    Slice<Product> findAllBy(Pageable pageable);
 
     Page<Product> findByType(String type, Pageable pageable);
 
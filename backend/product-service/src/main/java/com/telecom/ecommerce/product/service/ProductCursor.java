@@ -0,0 +1,84 @@
+package com.telecom.ecommerce.product.service;
+
+import com.telecom.ecommerce.product.exception.InvalidCursorException;
+import com.telecom.ecommerce.product.model.Product;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the sort key and id of the last product on a page.
+ * Clients get it as an opaque URL-safe token, which also records the sort order it belongs to,
+ * so a cursor cannot be replayed against a different sort.
+ */
+final class ProductCursor {
+
+    private static final String SEPARATOR = ",";
+
+    private final Object key;
+    private final Long id;
+
+    private ProductCursor(Object key, Long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    Long getId() {
+        return id;
+    }
+
+    static String encode(Sort.Order order, Product last) {
+        String value = String.join(SEPARATOR, order.getProperty(), order.getDirection().name(),
+                keyToString(order.getProperty(), last), String.valueOf(last.getId()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ProductCursor decode(String cursor, Sort.Order order) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (parts.length != 4) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (!parts[0].equals(order.getProperty()) || !parts[1].equals(order.getDirection().name())) {
+            throw new InvalidCursorException("Cursor does not belong to this sort order");
+        }
+        try {
+            return new ProductCursor(parseKey(order.getProperty(), parts[2]), Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    private static String keyToString(String property, Product product) {
+        switch (property) {
+            case "price":
+                return product.getPrice().toPlainString();
+            case "createdAt":
+                return product.getCreatedAt().toString();
+            default:
+                return String.valueOf(product.getId());
+        }
+    }
+
+    private static Object parseKey(String property, String value) {
+        switch (property) {
+            case "price":
+                return new BigDecimal(value);
+            case "createdAt":
+                return LocalDateTime.parse(value);
+            default:
+                return Long.valueOf(value);
+        }
+    }
+}
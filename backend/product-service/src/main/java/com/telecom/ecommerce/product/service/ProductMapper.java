@@ -0,0 +1,41 @@
+package com.telecom.ecommerce.product.service;
+
+import com.telecom.ecommerce.product.dto.ProductRequest;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import com.telecom.ecommerce.product.model.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps between product requests, entities and responses. Shared by the service and the
+ * in-memory catalog, which builds its responses straight from the loaded entities.
+ */
+@Component
+public class ProductMapper {
+
+    public Product mapToEntity(ProductRequest productRequest) {
+        // Manual builder implementation if Lombok's builder isn't working
+        Product product = new Product();
+        product.setName(productRequest.getName());
+        product.setDescription(productRequest.getDescription());
+        product.setPrice(productRequest.getPrice());
+        product.setType(productRequest.getType());
+        product.setImageUrl(productRequest.getImageUrl());
+        product.setDataAllowance(productRequest.getDataAllowance());
+        product.setBrand(productRequest.getBrand());
+        return product;
+    }
+
+    public ProductResponse mapToResponse(Product product) {
+        // Manual builder implementation if Lombok's builder isn't working
+        ProductResponse response = new ProductResponse();
+        response.setId(product.getId());
+        response.setName(product.getName());
+        response.setDescription(product.getDescription());
+        response.setPrice(product.getPrice());
+        response.setType(product.getType());
+        response.setImageUrl(product.getImageUrl());
+        response.setDataAllowance(product.getDataAllowance());
+        response.setBrand(product.getBrand());
+        return response;
+    }
+}
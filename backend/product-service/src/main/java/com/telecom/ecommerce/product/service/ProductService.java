@@ -1,10 +1,12 @@
 package com.telecom.ecommerce.product.service;
 
+import com.telecom.ecommerce.product.dto.ProductCursorPage;
 import com.telecom.ecommerce.product.dto.ProductPage;
 import com.telecom.ecommerce.product.dto.ProductRequest;
 import com.telecom.ecommerce.product.dto.ProductResponse;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface ProductService {
 
@@ -12,6 +14,9 @@ public interface ProductService {
 
     ProductResponse getProductById(Long id);
 
+    // Unknown ids are left out of the result
+    List<ProductResponse> getProductsByIds(List<Long> ids);
+
     ProductPage getAllProducts(int page, int size, String sort);
 
     ProductPage getProductsByFilters(
@@ -24,6 +29,30 @@ public interface ProductService {
             String sort
     );
 
+    // The listing page as JSON, served from the listing cache when the same page was built before
+    byte[] getProductListing(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            int page,
+            int size,
+            String sort
+    );
+
+    // Keyset pagination: the page after the given cursor, or the first page for an empty cursor.
+    // The total is only counted when includeTotal is set
+    ProductCursorPage getProductsAfter(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            String cursor,
+            int size,
+            String sort,
+            boolean includeTotal
+    );
+
     ProductResponse updateProduct(Long id, ProductRequest productRequest);
 
     void deleteProduct(Long id);
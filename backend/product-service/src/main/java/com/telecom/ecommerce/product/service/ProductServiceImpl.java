@@ -1,5 +1,11 @@
 package com.telecom.ecommerce.product.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telecom.ecommerce.product.cache.ProductCache;
+import com.telecom.ecommerce.product.cache.ProductListingCache;
+import com.telecom.ecommerce.product.catalog.InMemoryCatalog;
+import com.telecom.ecommerce.product.dto.ProductCursorPage;
 import com.telecom.ecommerce.product.dto.ProductPage;
 import com.telecom.ecommerce.product.dto.ProductRequest;
 import com.telecom.ecommerce.product.dto.ProductResponse;
@@ -11,11 +17,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import javax.persistence.EntityNotFoundException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,32 +38,65 @@ public class ProductServiceImpl implements ProductService {
     
     // Manually define logger if @Slf4j doesn't work
     private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+    // Keyset pages fetch one row more than they return
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
     
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ProductListingCache productListingCache;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    // Null unless product.catalog.in-memory.enabled is on
+    private final InMemoryCatalog inMemoryCatalog;
     
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository) {
+    public ProductServiceImpl(
+            ProductRepository productRepository,
+            ProductCache productCache,
+            ProductListingCache productListingCache,
+            ProductMapper productMapper,
+            ObjectMapper objectMapper,
+            @Nullable InMemoryCatalog inMemoryCatalog
+    ) {
         this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.productListingCache = productListingCache;
+        this.productMapper = productMapper;
+        this.objectMapper = objectMapper;
+        this.inMemoryCatalog = inMemoryCatalog;
     }
 
     @Override
     public ProductResponse createProduct(ProductRequest productRequest) {
-        Product product = mapToEntity(productRequest);
+        Product product = productMapper.mapToEntity(productRequest);
         Product savedProduct = productRepository.save(product);
+        productCache.invalidate(savedProduct.getId());
         log.info("Product created: {}", savedProduct.getId());
-        return mapToResponse(savedProduct);
+        return productMapper.mapToResponse(savedProduct);
     }
 
     @Override
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + id));
-        return mapToResponse(product);
+        return productCache.get(id, productId -> productRepository.findById(productId)
+                .map(productMapper::mapToResponse)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found with id: " + productId)));
+    }
+
+    @Override
+    public List<ProductResponse> getProductsByIds(List<Long> ids) {
+        Map<Long, ProductResponse> products = productCache.getAll(new LinkedHashSet<>(ids), missingIds ->
+                productRepository.findAllById(missingIds)
+                        .stream()
+                        .collect(Collectors.toMap(Product::getId, productMapper::mapToResponse)));
+        return new ArrayList<>(products.values());
     }
 
     @Override
     public ProductPage getAllProducts(int page, int size, String sort) {
         Pageable pageable = createPageable(page, size, sort);
+        if (inMemoryCatalog != null && inMemoryCatalog.isReady()) {
+            return inMemoryCatalog.query(null, null, null, null, pageable);
+        }
         Page<Product> productPage = productRepository.findAll(pageable);
         return createProductPage(productPage);
     }
@@ -68,10 +112,76 @@ public class ProductServiceImpl implements ProductService {
             String sort
     ) {
         Pageable pageable = createPageable(page, size, sort);
+        if (inMemoryCatalog != null && inMemoryCatalog.isReady()) {
+            return inMemoryCatalog.query(type, maxPrice, dataAllowance, brand, pageable);
+        }
         Page<Product> productPage = productRepository.findByFilters(type, maxPrice, dataAllowance, brand, pageable);
         return createProductPage(productPage);
     }
 
+    @Override
+    public byte[] getProductListing(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            int page,
+            int size,
+            String sort
+    ) {
+        // Keyed by the effective sort, so e.g. "popularity" and unknown values share entries
+        List<Object> query = Arrays.asList(
+                type, maxPrice != null ? maxPrice.stripTrailingZeros() : null, dataAllowance, brand,
+                page, size, createPageable(page, size, sort).getSort());
+        return productListingCache.get(query, () -> {
+            ProductPage productPage;
+            if (type == null && maxPrice == null && dataAllowance == null && brand == null) {
+                // No filters applied, get all products
+                productPage = getAllProducts(page, size, sort);
+            } else {
+                productPage = getProductsByFilters(type, maxPrice, dataAllowance, brand, page, size, sort);
+            }
+            try {
+                return objectMapper.writeValueAsBytes(productPage);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize product page", e);
+            }
+        });
+    }
+
+    @Override
+    public ProductCursorPage getProductsAfter(
+            String type,
+            BigDecimal maxPrice,
+            String dataAllowance,
+            String brand,
+            String cursor,
+            int size,
+            String sort,
+            boolean includeTotal
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        Sort.Order order = createSort(sort).iterator().next();
+        ProductCursor after = cursor.isEmpty() ? null : ProductCursor.decode(cursor, order);
+        // One extra row tells whether there is a next page without counting
+        List<Product> products = productRepository.findByFiltersAfter(type, maxPrice, dataAllowance, brand, order,
+                after != null ? after.getKey() : null, after != null ? after.getId() : null, size + 1);
+        boolean hasNext = products.size() > size;
+        if (hasNext) {
+            products = products.subList(0, size);
+        }
+
+        ProductCursorPage page = new ProductCursorPage();
+        page.setProducts(products.stream().map(productMapper::mapToResponse).collect(Collectors.toList()));
+        page.setNextCursor(hasNext ? ProductCursor.encode(order, products.get(size - 1)) : null);
+        if (includeTotal) {
+            page.setTotalElements(productRepository.countByFilters(type, maxPrice, dataAllowance, brand));
+        }
+        return page;
+    }
+
     @Override
     public ProductResponse updateProduct(Long id, ProductRequest productRequest) {
         Product existingProduct = productRepository.findById(id)
@@ -87,8 +197,9 @@ public class ProductServiceImpl implements ProductService {
         existingProduct.setBrand(productRequest.getBrand());
 
         Product updatedProduct = productRepository.save(existingProduct);
+        productCache.invalidate(id);
         log.info("Product updated: {}", updatedProduct.getId());
-        return mapToResponse(updatedProduct);
+        return productMapper.mapToResponse(updatedProduct);
     }
 
     @Override
@@ -97,13 +208,19 @@ public class ProductServiceImpl implements ProductService {
             throw new EntityNotFoundException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        productCache.invalidate(id);
         log.info("Product deleted: {}", id);
     }
 
     private Pageable createPageable(int page, int size, String sort) {
+        return PageRequest.of(page, size, createSort(sort));
+    }
+
+    // Ties are broken by id, so every product has one position and pages neither repeat nor skip products
+    private Sort createSort(String sort) {
         Sort.Direction direction = sort.startsWith("price-high-low") ? Sort.Direction.DESC : Sort.Direction.ASC;
         String sortField = getSortField(sort);
-        return PageRequest.of(page, size, Sort.by(direction, sortField));
+        return sortField.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, sortField, "id");
     }
 
     private String getSortField(String sort) {
@@ -120,7 +237,7 @@ public class ProductServiceImpl implements ProductService {
     private ProductPage createProductPage(Page<Product> productPage) {
         List<ProductResponse> productResponses = productPage.getContent()
                 .stream()
-                .map(this::mapToResponse)
+                .map(productMapper::mapToResponse)
                 .collect(Collectors.toList());
 
         // Manual builder implementation if Lombok's builder isn't working
@@ -131,31 +248,4 @@ public class ProductServiceImpl implements ProductService {
         page.setTotalElements(productPage.getTotalElements());
         return page;
     }
-
-    private Product mapToEntity(ProductRequest productRequest) {
-        // Manual builder implementation if Lombok's builder isn't working
-        Product product = new Product();
-        product.setName(productRequest.getName());
-        product.setDescription(productRequest.getDescription());
-        product.setPrice(productRequest.getPrice());
-        product.setType(productRequest.getType());
-        product.setImageUrl(productRequest.getImageUrl());
-        product.setDataAllowance(productRequest.getDataAllowance());
-        product.setBrand(productRequest.getBrand());
-        return product;
-    }
-
-    private ProductResponse mapToResponse(Product product) {
-        // Manual builder implementation if Lombok's builder isn't working
-        ProductResponse response = new ProductResponse();
-        response.setId(product.getId());
-        response.setName(product.getName());
-        response.setDescription(product.getDescription());
-        response.setPrice(product.getPrice());
-        response.setType(product.getType());
-        response.setImageUrl(product.getImageUrl());
-        response.setDataAllowance(product.getDataAllowance());
-        response.setBrand(product.getBrand());
-        return response;
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.telecom.ecommerce.product.catalog;
+
+import com.telecom.ecommerce.product.dto.ProductPage;
+import com.telecom.ecommerce.product.dto.ProductResponse;
+import com.telecom.ecommerce.product.model.Product;
+import com.telecom.ecommerce.product.repository.ProductRepository;
+import com.telecom.ecommerce.product.service.ProductMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the in-memory catalog returns the same pages as the JPA query for the same filters,
+ * sort and page, on a seeded catalog with many ties in price and creation time.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class ColumnarCatalogTest {
+
+    private static final String[] TYPES = {"tariff", "device", "accessory", "bundle"};
+    private static final String[] DATA_ALLOWANCES = {"5GB", "30GB", "Unlimited"};
+    private static final String[] BRANDS = {"Apple", "Samsung", "Google"};
+    private static final BigDecimal[] MAX_PRICES = {null, new BigDecimal("20.00"), new BigDecimal("55.555")};
+    private static final int PRODUCTS = 2000;
+    private static final int PAGE_SIZE = 25;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private ColumnarCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            // Few distinct prices and creation times, so most rows tie on the sort key
+            rows.add(new Object[]{
+                    "Product " + i, "Description " + i, BigDecimal.valueOf(100 + random.nextInt(100) * 50, 2), type,
+                    random.nextBoolean() ? DATA_ALLOWANCES[random.nextInt(DATA_ALLOWANCES.length)] : null,
+                    random.nextBoolean() ? BRANDS[random.nextInt(BRANDS.length)] : null,
+                    Timestamp.valueOf(start.plusHours(random.nextInt(200)))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, type, data_allowance, brand, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", withUpdatedAt(rows));
+
+        catalog = new ColumnarCatalog();
+        for (Product product : productRepository.findAll()) {
+            catalog.load(productMapper.mapToResponse(product), product.getCreatedAt());
+        }
+        catalog.finishLoad();
+    }
+
+    @Test
+    void matchesJpaForEveryFilterSortAndPage() {
+        assertMatchesJpa();
+    }
+
+    @Test
+    void matchesJpaAfterChangesAndCompaction() {
+        List<Product> products = productRepository.findAll(Sort.by("id"));
+        for (int i = 0; i < products.size(); i += 3) {
+            Product product = products.get(i);
+            if (i % 2 == 0) {
+                product.setPrice(product.getPrice().add(new BigDecimal("7.25")));
+                product.setBrand(BRANDS[i % BRANDS.length]);
+                productRepository.save(product);
+                catalog.put(productMapper.mapToResponse(product), product.getCreatedAt());
+            } else {
+                productRepository.delete(product);
+                catalog.remove(product.getId());
+            }
+        }
+        productRepository.flush();
+
+        assertMatchesJpa();
+        catalog = catalog.compacted();
+        assertMatchesJpa();
+    }
+
+    private void assertMatchesJpa() {
+        List<String> types = Arrays.asList(null, "device", "bundle");
+        List<String> dataAllowances = Arrays.asList(null, "30GB");
+        List<String> brands = Arrays.asList(null, "Samsung");
+        for (String type : types) {
+            for (BigDecimal maxPrice : MAX_PRICES) {
+                for (String dataAllowance : dataAllowances) {
+                    for (String brand : brands) {
+                        for (ColumnarCatalog.SortColumn sortColumn : ColumnarCatalog.SortColumn.values()) {
+                            for (boolean descending : new boolean[]{false, true}) {
+                                assertPagesMatch(type, maxPrice, dataAllowance, brand, sortColumn, descending);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertPagesMatch(String type, BigDecimal maxPrice, String dataAllowance, String brand,
+                                  ColumnarCatalog.SortColumn sortColumn, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = sortColumn == ColumnarCatalog.SortColumn.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, property(sortColumn), "id");
+        for (int page : new int[]{0, 1, 7, 1000}) {
+            Page<Product> expected = productRepository.findByFilters(type, maxPrice, dataAllowance, brand,
+                    PageRequest.of(page, PAGE_SIZE, sort));
+            ProductPage actual = catalog.query(type, maxPrice, dataAllowance, brand, sortColumn, descending, page, PAGE_SIZE);
+
+            String query = String.format("type=%s maxPrice=%s data=%s brand=%s sort=%s %s page=%d",
+                    type, maxPrice, dataAllowance, brand, sortColumn, direction, page);
+            assertEquals(expected.getContent().stream().map(Product::getId).collect(Collectors.toList()),
+                    actual.getProducts().stream().map(ProductResponse::getId).collect(Collectors.toList()), query);
+            assertEquals(expected.getTotalElements(), actual.getTotalElements(), query);
+            assertEquals(expected.getTotalPages(), actual.getTotalPages(), query);
+        }
+    }
+
+    private static String property(ColumnarCatalog.SortColumn sortColumn) {
+        return sortColumn == ColumnarCatalog.SortColumn.PRICE ? "price" : "createdAt";
+    }
+
+    private static List<Object[]> withUpdatedAt(List<Object[]> rows) {
+        List<Object[]> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Object[] withUpdatedAt = Arrays.copyOf(row, row.length + 1);
+            withUpdatedAt[row.length] = row[row.length - 1];
+            result.add(withUpdatedAt);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package com.telecom.ecommerce.product.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(CreatedAtBackfill.class)
+class CreatedAtBackfillTest {
+
+    private static final String INSERT = "INSERT INTO products (name, price, type, created_at, updated_at) VALUES (?, 10, 'tariff', ?, ?)";
+
+    @Autowired
+    private CreatedAtBackfill backfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfillsNullCreationTimesAndAddsTheConstraint() {
+        // A table from before the column was declared non-null
+        jdbcTemplate.execute("ALTER TABLE products ALTER COLUMN created_at SET NULL");
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 12, 0));
+        jdbcTemplate.update(INSERT, "updated", null, updatedAt);
+        jdbcTemplate.update(INSERT, "never updated", null, null);
+
+        backfill.afterPropertiesSet();
+
+        assertEquals(updatedAt, createdAt("updated"));
+        assertNotNull(createdAt("never updated"));
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update(INSERT, "new", null, null));
+    }
+
+    @Test
+    void leavesNonNullColumnAlone() {
+        backfill.afterPropertiesSet();
+
+        assertThrows(RuntimeException.class, () -> jdbcTemplate.update(INSERT, "new", null, null));
+    }
+
+    private Timestamp createdAt(String name) {
+        return jdbcTemplate.queryForObject("SELECT created_at FROM products WHERE name = ?", Timestamp.class, name);
+    }
+}
@@ -0,0 +1,83 @@
+package com.telecom.ecommerce.product.service;
+
+import com.telecom.ecommerce.product.exception.InvalidCursorException;
+import com.telecom.ecommerce.product.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductCursorTest {
+
+    private static final Sort.Order PRICE_ASC = Sort.Order.asc("price");
+    private static final Sort.Order CREATED_DESC = Sort.Order.desc("createdAt");
+    private static final Sort.Order ID_ASC = Sort.Order.asc("id");
+
+    @Test
+    void roundTripsPriceKey() {
+        ProductCursor cursor = ProductCursor.decode(ProductCursor.encode(PRICE_ASC, product()), PRICE_ASC);
+
+        assertEquals(new BigDecimal("49.990"), cursor.getKey());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void roundTripsCreatedAtKeyToTheNanosecond() {
+        ProductCursor cursor = ProductCursor.decode(ProductCursor.encode(CREATED_DESC, product()), CREATED_DESC);
+
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789), cursor.getKey());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void roundTripsIdKey() {
+        ProductCursor cursor = ProductCursor.decode(ProductCursor.encode(ID_ASC, product()), ID_ASC);
+
+        assertEquals(42L, cursor.getKey());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void isUrlSafe() {
+        String cursor = ProductCursor.encode(CREATED_DESC, product());
+
+        assertEquals(cursor, cursor.replaceAll("[^A-Za-z0-9_-]", ""));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String cursor = ProductCursor.encode(PRICE_ASC, product());
+
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(cursor, Sort.Order.desc("price")));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(cursor, CREATED_DESC));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode("not base64!", PRICE_ASC));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(encoded("price,ASC,49.99"), PRICE_ASC));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(encoded("price,ASC,49.99,42,1"), PRICE_ASC));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(encoded("price,ASC,cheap,42"), PRICE_ASC));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode(encoded("price,ASC,49.99,"), PRICE_ASC));
+        assertThrows(InvalidCursorException.class,
+                () -> ProductCursor.decode(encoded("createdAt,DESC,yesterday,42"), CREATED_DESC));
+    }
+
+    private static Product product() {
+        Product product = new Product();
+        product.setId(42L);
+        product.setPrice(new BigDecimal("49.990"));
+        product.setCreatedAt(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123456789));
+        return product;
+    }
+
+    private static String encoded(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
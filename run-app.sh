@@ -603,7 +603,12 @@ for SERVICE in product-service cart-service discount-service payment-service not
     if [ -d "backend/$SERVICE" ]; then
         # Use the service name directly with first letter capitalized
         SERVICE_NAME=$(echo "$SERVICE" | sed 's/\b\(.\)/\u\1/g')
-        start_service "$SERVICE_NAME" "backend/$SERVICE" "mvn spring-boot:run"
+        RUN_COMMAND="mvn spring-boot:run"
+        # Without CART_TOKEN_SECRET the cart service only starts under its dev profile
+        if [ "$SERVICE" = "cart-service" ] && [ -z "$CART_TOKEN_SECRET" ]; then
+            RUN_COMMAND="mvn spring-boot:run -Dspring-boot.run.profiles=dev"
+        fi
+        start_service "$SERVICE_NAME" "backend/$SERVICE" "$RUN_COMMAND"
         sleep 2  # Give each service a moment to start
     else
         echo -e "${YELLOW}⚠ $SERVICE directory not found. Skipping...${NC}"